@@ -0,0 +1,73 @@
+package pacman.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The per-tick building blocks: wall collision, pellet eating and ghost direction choice.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+    private PacManGame game;
+    private PacManGame.Player pacman;
+
+    @State(Scope.Thread)
+    public static class PelletBoard {
+        /** Pellets left on the board: a fresh level or just a handful. */
+        @Param({"full", "nearEmpty"})
+        public String pellets;
+
+        PacManGame game;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            game = new PacManGame(42);
+            if (pellets.equals("nearEmpty")) {
+                game.removePellets(4);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        game = new PacManGame(42);
+        pacman = game.getPacman();
+    }
+
+    @Benchmark
+    public void canMove(Blackhole blackhole) {
+        blackhole.consume(game.canMove(pacman, Direction.UP));
+        blackhole.consume(game.canMove(pacman, Direction.DOWN));
+        blackhole.consume(game.canMove(pacman, Direction.LEFT));
+        blackhole.consume(game.canMove(pacman, Direction.RIGHT));
+    }
+
+    @Benchmark
+    public int eatPellets(PelletBoard board) {
+        board.game.eatPellets();
+        return board.game.getPelletsRemaining();
+    }
+
+    @Benchmark
+    public Direction pickGhostDirection() {
+        return game.pickGhostDirection(0);
+    }
+}
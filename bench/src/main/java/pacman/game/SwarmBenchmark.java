@@ -0,0 +1,125 @@
+package pacman.game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pacman.batch.RandomPolicy;
+import pacman.level.LevelSource;
+
+/**
+ * {@link PacManGame#tick()} on a 128x64 lattice maze with many ghosts, all chasers or a mix of brains, updated serially
+ * or with ghost moves planned on a pool. Pac-Man dies often; the benchmark restarts the game on Game Over and skips the
+ * death animation, so nearly every measured tick is a RUNNING tick.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SwarmBenchmark {
+    private static final int COLUMNS = 128;
+    private static final int ROWS = 64;
+
+    @Param({"4", "500", "1500"})
+    public int ghosts;
+
+    /** "chaser" for every ghost, or "mixed": one built-in personality per ghost colour. */
+    @Param({"chaser", "mixed"})
+    public String brains;
+
+    /** Threads planning ghost moves: 1 updates serially, more plan on a pool of that size. */
+    @Param({"1", "4"})
+    public int threads;
+
+    private PacManGame game;
+    private RandomPolicy policy;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        pacman.level.Level swarm = swarmLevel(ghosts);
+        if (brains.equals("mixed")) {
+            swarm = swarm.withGhostBrain('b', "chaser").withGhostBrain('o', "ambusher")
+                    .withGhostBrain('p', "patroller").withGhostBrain('r', "random");
+        }
+        pacman.level.Level level = swarm;
+        game = new PacManGame(42, new LevelSource() {
+            @Override
+            public int getLevelCount() {
+                return 1;
+            }
+
+            @Override
+            public pacman.level.Level getLevel(int index) {
+                return level;
+            }
+        });
+        policy = new RandomPolicy(42, 8);
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads);
+            game.setGhostPool(pool);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    @Benchmark
+    public GameState tick() {
+        policy.beforeTick(game);
+        game.tick();
+        while (game.getGameState() == GameState.DYING) {
+            game.tick();
+        }
+        if (game.getGameState() != GameState.RUNNING) {
+            game.onInput(GameInput.RESTART);
+        }
+        return game.getGameState();
+    }
+
+    /** Walls round the edge and on every even (col, row); ghosts spread evenly over the odd-odd junctions. */
+    static pacman.level.Level swarmLevel(int ghostCount) {
+        byte[] tiles = new byte[COLUMNS * ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLUMNS; col++) {
+                boolean edge = row == 0 || col == 0 || row == ROWS - 1 || col == COLUMNS - 1;
+                boolean pillar = row % 2 == 0 && col % 2 == 0;
+                tiles[row * COLUMNS + col] = (byte) (edge || pillar ? 'X' : ' ');
+            }
+        }
+        tiles[(ROWS / 2 + 1) * COLUMNS + COLUMNS / 2 + 1] = 'P';
+
+        char[] spawns = {'b', 'o', 'p', 'r'};
+        int junctions = (COLUMNS / 2 - 1) * (ROWS / 2 - 1);
+        for (int i = 0; i < ghostCount; i++) {
+            int junction = (int) ((long) i * junctions / ghostCount);
+            int col = 1 + 2 * (junction % (COLUMNS / 2 - 1));
+            int row = 1 + 2 * (junction / (COLUMNS / 2 - 1));
+            int tile = row * COLUMNS + col;
+            if (tiles[tile] != 'P') {
+                tiles[tile] = (byte) spawns[i % spawns.length];
+            }
+        }
+        return new pacman.level.Level(COLUMNS, ROWS, tiles);
+    }
+}
@@ -0,0 +1,87 @@
+package pacman.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pacman.batch.RandomPolicy;
+
+/**
+ * {@link PacManGame#tick()} in each {@link GameState}. RUNNING and DYING leave their state on their own
+ * (death, end of the animation); the benchmark puts them back, which costs one level load or round reset every
+ * few hundred ticks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickBenchmark {
+    @Param({"RUNNING", "PAUSED", "DYING", "GAME_OVER", "WIN"})
+    public GameState state;
+
+    private PacManGame game;
+    private RandomPolicy policy;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        game = new PacManGame(42);
+        policy = new RandomPolicy(42, 8);
+        enterState();
+    }
+
+    @Benchmark
+    public GameState tick() {
+        if (state == GameState.RUNNING) {
+            policy.beforeTick(game);
+        }
+        game.tick();
+        if (game.getGameState() != state) {
+            enterState();
+        }
+        return game.getGameState();
+    }
+
+    private void enterState() {
+        switch (state) {
+            case RUNNING:
+                if (game.getGameState() != GameState.RUNNING) {
+                    game.onInput(GameInput.RESTART);
+                }
+                break;
+            case PAUSED:
+                game.onInput(GameInput.RESTART);
+                game.onInput(GameInput.PAUSE);
+                break;
+            case DYING:
+                game.startDeathAnimation();
+                break;
+            case GAME_OVER:
+                while (game.getGameState() != GameState.GAME_OVER) {
+                    policy.beforeTick(game);
+                    game.tick();
+                }
+                break;
+            case WIN:
+                while (game.getGameState() != GameState.WIN) {
+                    game.removePellets(0);
+                    game.tick();
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unhandled state " + state);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package pacman.render;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pacman.game.PacManGame;
+
+/**
+ * One full frame drawn into an offscreen {@link BufferedImage}, as the panel would paint it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+    private PacManRenderer renderer;
+    private BufferedImage frame;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        PacManGame game = new PacManGame(42);
+        renderer = new PacManRenderer(game, Assets.load(RenderBenchmark.class));
+        frame = new BufferedImage(game.getBoardWidth(), game.getBoardHeight(), BufferedImage.TYPE_INT_RGB);
+        graphics = frame.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        renderer.draw(graphics);
+        return frame;
+    }
+}
@@ -1,17 +1,97 @@
 package pacman;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import javax.swing.JFrame;
 
+import pacman.events.EventLog;
+import pacman.game.PacManGame;
+import pacman.level.BuiltInLevels;
+import pacman.level.LevelPack;
+import pacman.level.LevelSource;
+import pacman.profile.TickProfiler;
+import pacman.replay.Replay;
+import pacman.replay.ReplayPlayer;
+import pacman.replay.ReplayRecorder;
 import pacman.ui.PacManPanel;
 
 public class App {
+    // Options:
+    // - --seed <n>: seed the ghost AI
+    // - --record <file>: save a replay of the session when the window closes
+    // - --replay <file> [--speed <x>]: watch a recorded session at x times real time
+    // - --fps <n>: frames per second to render (0 = uncapped, default = display refresh rate)
+    // - --profile: time every tick phase (JFR events + JMX bean pacman:type=TickProfiler)
+    // - --events <file>: log gameplay events to a binary file (see pacman.events.EventLog)
+    // - --levels <file>: play the levels of a level pack (see pacman.level.LevelPack) instead of the built-in ones
     public static void main(String[] args) throws Exception {
+        Long seed = null;
+        Path recordPath = null;
+        Path replayPath = null;
+        double speed = 1.0;
+        int fps = PacManPanel.displayRefreshRate();
+        boolean profile = false;
+        Path levelPath = null;
+        Path eventsPath = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("--record") && i + 1 < args.length) {
+                recordPath = Paths.get(args[++i]);
+            } else if (arg.equals("--replay") && i + 1 < args.length) {
+                replayPath = Paths.get(args[++i]);
+            } else if (arg.equals("--speed") && i + 1 < args.length) {
+                speed = Double.parseDouble(args[++i]);
+            } else if (arg.equals("--fps") && i + 1 < args.length) {
+                fps = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--levels") && i + 1 < args.length) {
+                levelPath = Paths.get(args[++i]);
+            } else if (arg.equals("--events") && i + 1 < args.length) {
+                eventsPath = Paths.get(args[++i]);
+            } else if (arg.equals("--profile")) {
+                profile = true;
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
         JFrame frame = new JFrame("Pac Man");
         frame.setLocationRelativeTo(null);
         frame.setResizable(false);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        PacManPanel pacmanGame = new PacManPanel();
+        // The pack stays open (and mapped) for the life of the process.
+        LevelSource levels = levelPath != null ? LevelPack.open(levelPath) : BuiltInLevels.INSTANCE;
+        PacManPanel pacmanGame;
+        if (replayPath != null) {
+            pacmanGame = new PacManPanel(new ReplayPlayer(Replay.load(replayPath), levels), speed, fps);
+        } else {
+            PacManGame game = new PacManGame(seed != null ? seed : new Random().nextLong(), levels);
+            ReplayRecorder recorder = recordPath != null ? ReplayRecorder.attach(game) : null;
+            pacmanGame = new PacManPanel(game, fps);
+            if (recorder != null) {
+                saveReplayOnClose(frame, pacmanGame, recorder, recordPath);
+            }
+        }
+
+        // Only levels with hundreds of ghosts use it; the game plays out the same with or without.
+        pacmanGame.getGame().setGhostPool(ForkJoinPool.commonPool());
+
+        if (profile) {
+            TickProfiler profiler = new TickProfiler(true);
+            profiler.register();
+            profiler.attach(pacmanGame.getGame());
+        }
+
+        if (eventsPath != null) {
+            closeOnExit(frame, pacmanGame, EventLog.attach(pacmanGame.getGame(), eventsPath), eventsPath);
+        }
 
         frame.add(pacmanGame);
         frame.pack();
@@ -19,4 +99,34 @@ public class App {
         pacmanGame.requestFocusInWindow();
 
     }
+
+    private static void closeOnExit(JFrame frame, PacManPanel panel, EventLog log, Path path) {
+        // Like the replay: the loop must have stopped ticking before the log is closed.
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                panel.stop();
+                try {
+                    log.close();
+                } catch (IOException ex) {
+                    System.err.println("Could not write event log " + path + ": " + ex.getMessage());
+                }
+            }
+        });
+    }
+
+    private static void saveReplayOnClose(JFrame frame, PacManPanel panel, ReplayRecorder recorder, Path path) {
+        // Runs on the EDT before EXIT_ON_CLOSE exits; stopping the loop first means the game is no longer ticking.
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                panel.stop();
+                try {
+                    recorder.finish().save(path);
+                } catch (IOException ex) {
+                    System.err.println("Could not save replay to " + path + ": " + ex.getMessage());
+                }
+            }
+        });
+    }
 }
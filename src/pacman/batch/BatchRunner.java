@@ -0,0 +1,201 @@
+package pacman.batch;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import pacman.game.GameState;
+import pacman.game.PacManGame;
+import pacman.level.BuiltInLevels;
+import pacman.level.LevelPack;
+import pacman.level.LevelSource;
+import pacman.replay.Replay;
+
+/**
+ * Runs many independent headless games across a fork-join pool and aggregates per-level statistics.
+ * Every game owns its state, so games never contend and throughput scales with cores.
+ */
+public final class BatchRunner {
+    private static final int GAMES_PER_TASK = 4;
+
+    private final InputPolicy.Factory policyFactory;
+    private final long baseSeed;
+    private final long maxTicks;
+    private final LevelSource levels;
+    private final int levelCount;
+
+    public BatchRunner(InputPolicy.Factory policyFactory, long baseSeed, long maxTicks) {
+        this(policyFactory, baseSeed, maxTicks, BuiltInLevels.INSTANCE);
+    }
+
+    public BatchRunner(InputPolicy.Factory policyFactory, long baseSeed, long maxTicks, LevelSource levels) {
+        this.policyFactory = Objects.requireNonNull(policyFactory, "policyFactory");
+        this.baseSeed = baseSeed;
+        this.maxTicks = maxTicks;
+        this.levels = Objects.requireNonNull(levels, "levels");
+        this.levelCount = levels.getLevelCount();
+    }
+
+    public BatchStats run(int games, ForkJoinPool pool) {
+        return pool.invoke(new GamesTask(0, games));
+    }
+
+    public BatchStats run(int games) {
+        return run(games, ForkJoinPool.commonPool());
+    }
+
+    /** Plays game {@code gameIndex} to Win, Game Over or its tick limit, recording into {@code stats}. */
+    void runGame(int gameIndex, BatchStats stats) {
+        long seed = baseSeed + gameIndex;
+        PacManGame game = new PacManGame(policyFactory.gameSeed(gameIndex, seed), levels);
+        InputPolicy policy = policyFactory.create(gameIndex, seed);
+        long tickLimit = policyFactory.tickLimit(gameIndex, maxTicks);
+
+        int level = game.getLevelIndex();
+        long levelStartTick = 0;
+        int lives = game.getLives();
+        stats.levelEntered(level);
+
+        while (game.getTickCount() < tickLimit) {
+            policy.beforeTick(game);
+            game.tick();
+
+            if (game.getLives() < lives) {
+                stats.death(level);
+            }
+            lives = game.getLives();
+
+            GameState state = game.getGameState();
+            if (state == GameState.WIN) {
+                stats.levelCleared(level, game.getTickCount() - levelStartTick);
+                break;
+            }
+            if (state == GameState.GAME_OVER) {
+                break;
+            }
+
+            int newLevel = game.getLevelIndex();
+            if (newLevel != level) {
+                // A restart input also changes the level, but only counts as a fresh entry.
+                if (newLevel == level + 1) {
+                    stats.levelCleared(level, game.getTickCount() - levelStartTick);
+                }
+                level = newLevel;
+                levelStartTick = game.getTickCount();
+                stats.levelEntered(level);
+            }
+        }
+
+        GameState finalState = game.getGameState();
+        stats.gameFinished(game.getScore(), game.getTickCount(),
+                finalState == GameState.WIN, finalState == GameState.GAME_OVER);
+    }
+
+    private final class GamesTask extends RecursiveTask<BatchStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        GamesTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BatchStats compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                BatchStats stats = new BatchStats(levelCount);
+                for (int i = from; i < to; i++) {
+                    runGame(i, stats);
+                }
+                return stats;
+            }
+
+            int mid = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, mid);
+            left.fork();
+            BatchStats right = new GamesTask(mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Usage: {@code BatchRunner [--games n] [--seed s] [--threads t] [--max-ticks m] [--policy p] [--levels pack]}
+     * where p is {@code random[:holdTicks]}, {@code scripted:UDLR...[:holdTicks]} or {@code replay:file[,file...]}.
+     */
+    public static void main(String[] args) throws IOException {
+        int games = 1000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxTicks = 50_000;
+        String policy = "random";
+        String levelPack = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--games") && i + 1 < args.length) {
+                games = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--max-ticks") && i + 1 < args.length) {
+                maxTicks = Long.parseLong(args[++i]);
+            } else if (arg.equals("--policy") && i + 1 < args.length) {
+                policy = args[++i];
+            } else if (arg.equals("--levels") && i + 1 < args.length) {
+                levelPack = args[++i];
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        LevelPack pack = levelPack != null ? LevelPack.open(Paths.get(levelPack)) : null;
+        LevelSource levels = pack != null ? pack : BuiltInLevels.INSTANCE;
+        BatchRunner runner = new BatchRunner(parsePolicy(policy), seed, maxTicks, levels);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            BatchStats stats = runner.run(games, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.print(stats.report());
+            System.out.printf("%.2fs on %d threads (%.0f games/s, %.0f ticks/s)%n",
+                    seconds, threads, stats.getGames() / seconds, stats.getTotalTicks() / seconds);
+        } finally {
+            pool.shutdown();
+            if (pack != null) {
+                pack.close();
+            }
+        }
+    }
+
+    /** Parses a {@code --policy} argument; see {@link #main}. */
+    public static InputPolicy.Factory parsePolicy(String spec) throws IOException {
+        // Only the first colon separates the kind: the rest may hold colons of its own, e.g. a Windows replay path.
+        String[] parts = spec.split(":", 2);
+        String kind = parts[0];
+        String rest = parts.length > 1 ? parts[1] : null;
+        if (kind.equals("random")) {
+            return RandomPolicy.factory(rest != null ? Integer.parseInt(rest) : 8);
+        }
+        if (kind.equals("scripted") && rest != null) {
+            String[] script = rest.split(":");
+            if (script.length <= 2) {
+                return ScriptedPolicy.factory(ScriptedPolicy.parse(script[0]),
+                        script.length > 1 ? Integer.parseInt(script[1]) : 8);
+            }
+        }
+        if (kind.equals("replay") && rest != null) {
+            List<Replay> replays = new ArrayList<>();
+            for (String file : rest.split(",")) {
+                replays.add(Replay.load(Paths.get(file)));
+            }
+            return ReplayPolicy.factory(replays);
+        }
+        throw new IllegalArgumentException("Unknown policy: " + spec);
+    }
+}
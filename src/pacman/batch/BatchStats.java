@@ -0,0 +1,180 @@
+package pacman.batch;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated results of a batch. Each fork-join leaf fills its own instance and the partial results are merged,
+ * so nothing here is shared between threads while games are running.
+ */
+public final class BatchStats {
+    private final int levelCount;
+    private final long[] levelEntered;
+    private final long[] levelCleared;
+    private final long[] levelClearTicks;
+    private final long[] levelMinClearTicks;
+    private final long[] levelMaxClearTicks;
+    private final long[] levelDeaths;
+
+    private int games = 0;
+    private int wins = 0;
+    private int gameOvers = 0;
+    private long totalTicks = 0;
+    private int[] scores = new int[16];
+
+    BatchStats(int levelCount) {
+        this.levelCount = levelCount;
+        this.levelEntered = new long[levelCount];
+        this.levelCleared = new long[levelCount];
+        this.levelClearTicks = new long[levelCount];
+        this.levelMinClearTicks = new long[levelCount];
+        this.levelMaxClearTicks = new long[levelCount];
+        this.levelDeaths = new long[levelCount];
+        Arrays.fill(levelMinClearTicks, Long.MAX_VALUE);
+    }
+
+    void levelEntered(int level) {
+        levelEntered[level]++;
+    }
+
+    void levelCleared(int level, long ticks) {
+        levelCleared[level]++;
+        levelClearTicks[level] += ticks;
+        levelMinClearTicks[level] = Math.min(levelMinClearTicks[level], ticks);
+        levelMaxClearTicks[level] = Math.max(levelMaxClearTicks[level], ticks);
+    }
+
+    void death(int level) {
+        levelDeaths[level]++;
+    }
+
+    void gameFinished(int score, long ticks, boolean won, boolean gameOver) {
+        if (games == scores.length) {
+            scores = Arrays.copyOf(scores, games * 2);
+        }
+        scores[games++] = score;
+        totalTicks += ticks;
+        if (won) {
+            wins++;
+        } else if (gameOver) {
+            gameOvers++;
+        }
+    }
+
+    BatchStats merge(BatchStats other) {
+        for (int level = 0; level < levelCount; level++) {
+            levelEntered[level] += other.levelEntered[level];
+            levelCleared[level] += other.levelCleared[level];
+            levelClearTicks[level] += other.levelClearTicks[level];
+            levelMinClearTicks[level] = Math.min(levelMinClearTicks[level], other.levelMinClearTicks[level]);
+            levelMaxClearTicks[level] = Math.max(levelMaxClearTicks[level], other.levelMaxClearTicks[level]);
+            levelDeaths[level] += other.levelDeaths[level];
+        }
+        if (games + other.games > scores.length) {
+            scores = Arrays.copyOf(scores, games + other.games);
+        }
+        System.arraycopy(other.scores, 0, scores, games, other.games);
+        games += other.games;
+        wins += other.wins;
+        gameOvers += other.gameOvers;
+        totalTicks += other.totalTicks;
+        return this;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getGameOvers() {
+        return gameOvers;
+    }
+
+    /** Games that hit their tick limit before winning or losing. */
+    public int getTimeouts() {
+        return games - wins - gameOvers;
+    }
+
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    public long getLevelEntered(int level) {
+        return levelEntered[level];
+    }
+
+    public long getLevelCleared(int level) {
+        return levelCleared[level];
+    }
+
+    /** Fraction of games that reached {@code level} and went on to clear it. */
+    public double getCompletionRate(int level) {
+        return levelEntered[level] == 0 ? 0 : levelCleared[level] / (double) levelEntered[level];
+    }
+
+    public double getMeanTicksToClear(int level) {
+        return levelCleared[level] == 0 ? 0 : levelClearTicks[level] / (double) levelCleared[level];
+    }
+
+    public long getMinTicksToClear(int level) {
+        return levelCleared[level] == 0 ? 0 : levelMinClearTicks[level];
+    }
+
+    public long getMaxTicksToClear(int level) {
+        return levelMaxClearTicks[level];
+    }
+
+    public long getLevelDeaths(int level) {
+        return levelDeaths[level];
+    }
+
+    /** Final score at the given percentile (0-100), nearest-rank. */
+    public int getScorePercentile(double percentile) {
+        if (games == 0) {
+            return 0;
+        }
+        int[] sorted = Arrays.copyOf(scores, games);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * games);
+        return sorted[Math.max(0, Math.min(games - 1, rank - 1))];
+    }
+
+    public double getMeanScore() {
+        long sum = 0;
+        for (int i = 0; i < games; i++) {
+            sum += scores[i];
+        }
+        return games == 0 ? 0 : sum / (double) games;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games=%d wins=%d gameOvers=%d timeouts=%d ticks=%d%n",
+                games, wins, gameOvers, getTimeouts(), totalTicks));
+        sb.append(String.format("score mean=%.1f min=%d p10=%d p50=%d p90=%d max=%d%n",
+                getMeanScore(),
+                getScorePercentile(0),
+                getScorePercentile(10),
+                getScorePercentile(50),
+                getScorePercentile(90),
+                getScorePercentile(100)));
+        for (int level = 0; level < levelCount; level++) {
+            sb.append(String.format("level %d: entered=%d cleared=%d completion=%.1f%% ticksToClear mean=%.0f min=%d max=%d deaths=%d%n",
+                    level + 1,
+                    levelEntered[level],
+                    levelCleared[level],
+                    getCompletionRate(level) * 100,
+                    getMeanTicksToClear(level),
+                    getMinTicksToClear(level),
+                    getMaxTicksToClear(level),
+                    levelDeaths[level]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package pacman.batch;
+
+import pacman.game.PacManGame;
+
+/**
+ * Decides what a simulated player presses. Policies are stateful and used by one game on one thread.
+ */
+public interface InputPolicy {
+    /** Called before every tick; presses any inputs through {@link PacManGame#onInput}. */
+    void beforeTick(PacManGame game);
+
+    /** Creates one policy per game. {@code gameIndex} and {@code seed} identify the run. */
+    interface Factory {
+        InputPolicy create(int gameIndex, long seed);
+
+        /** Seed for the game itself; replays override this so the recorded session is reproduced. */
+        default long gameSeed(int gameIndex, long seed) {
+            return seed;
+        }
+
+        /** Tick budget for the game; replays stop where the recording stopped. */
+        default long tickLimit(int gameIndex, long maxTicks) {
+            return maxTicks;
+        }
+    }
+}
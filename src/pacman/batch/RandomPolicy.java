@@ -0,0 +1,36 @@
+package pacman.batch;
+
+import java.util.SplittableRandom;
+
+import pacman.game.GameInput;
+import pacman.game.PacManGame;
+
+/**
+ * Presses a random direction every {@code holdTicks} ticks.
+ */
+public final class RandomPolicy implements InputPolicy {
+    private static final GameInput[] DIRECTIONS = {GameInput.UP, GameInput.DOWN, GameInput.LEFT, GameInput.RIGHT};
+
+    private final SplittableRandom random;
+    private final int holdTicks;
+
+    public RandomPolicy(long seed, int holdTicks) {
+        if (holdTicks <= 0) {
+            throw new IllegalArgumentException("holdTicks must be positive");
+        }
+        this.random = new SplittableRandom(seed);
+        this.holdTicks = holdTicks;
+    }
+
+    @Override
+    public void beforeTick(PacManGame game) {
+        if (game.getTickCount() % holdTicks == 0) {
+            game.onInput(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+        }
+    }
+
+    public static Factory factory(int holdTicks) {
+        // Offset the policy seed so it does not share a stream with the game's own Random.
+        return (gameIndex, seed) -> new RandomPolicy(seed ^ 0x5DEECE66DL, holdTicks);
+    }
+}
@@ -0,0 +1,50 @@
+package pacman.batch;
+
+import java.util.List;
+import java.util.Objects;
+
+import pacman.game.PacManGame;
+import pacman.replay.Replay;
+
+/**
+ * Feeds the inputs of a recorded {@link Replay} on the ticks they were recorded.
+ */
+public final class ReplayPolicy implements InputPolicy {
+    private final Replay replay;
+    private int nextEvent = 0;
+
+    public ReplayPolicy(Replay replay) {
+        this.replay = Objects.requireNonNull(replay, "replay");
+    }
+
+    @Override
+    public void beforeTick(PacManGame game) {
+        long tick = game.getTickCount();
+        while (nextEvent < replay.getEventCount() && replay.getEventTick(nextEvent) == tick) {
+            game.onInput(replay.getEventInput(nextEvent++));
+        }
+    }
+
+    /** Game {@code i} replays {@code replays.get(i % replays.size())} with the recorded seed. */
+    public static Factory factory(List<Replay> replays) {
+        if (replays.isEmpty()) {
+            throw new IllegalArgumentException("replays must not be empty");
+        }
+        return new Factory() {
+            @Override
+            public InputPolicy create(int gameIndex, long seed) {
+                return new ReplayPolicy(replays.get(gameIndex % replays.size()));
+            }
+
+            @Override
+            public long gameSeed(int gameIndex, long seed) {
+                return replays.get(gameIndex % replays.size()).getSeed();
+            }
+
+            @Override
+            public long tickLimit(int gameIndex, long maxTicks) {
+                return Math.min(maxTicks, replays.get(gameIndex % replays.size()).getLength());
+            }
+        };
+    }
+}
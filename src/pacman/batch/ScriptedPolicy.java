@@ -0,0 +1,58 @@
+package pacman.batch;
+
+import java.util.Objects;
+
+import pacman.game.GameInput;
+import pacman.game.PacManGame;
+
+/**
+ * Cycles through a fixed list of inputs, pressing the next one every {@code holdTicks} ticks.
+ */
+public final class ScriptedPolicy implements InputPolicy {
+    private final GameInput[] script;
+    private final int holdTicks;
+    private int position = 0;
+
+    public ScriptedPolicy(GameInput[] script, int holdTicks) {
+        if (Objects.requireNonNull(script, "script").length == 0) {
+            throw new IllegalArgumentException("script must not be empty");
+        }
+        if (holdTicks <= 0) {
+            throw new IllegalArgumentException("holdTicks must be positive");
+        }
+        this.script = script.clone();
+        this.holdTicks = holdTicks;
+    }
+
+    /** Parses a script such as {@code "RRUULD"} (U/D/L/R letters). */
+    public static GameInput[] parse(String script) {
+        GameInput[] inputs = new GameInput[script.length()];
+        for (int i = 0; i < script.length(); i++) {
+            char c = Character.toUpperCase(script.charAt(i));
+            if (c == 'U') {
+                inputs[i] = GameInput.UP;
+            } else if (c == 'D') {
+                inputs[i] = GameInput.DOWN;
+            } else if (c == 'L') {
+                inputs[i] = GameInput.LEFT;
+            } else if (c == 'R') {
+                inputs[i] = GameInput.RIGHT;
+            } else {
+                throw new IllegalArgumentException("Invalid script character '" + script.charAt(i) + "'");
+            }
+        }
+        return inputs;
+    }
+
+    @Override
+    public void beforeTick(PacManGame game) {
+        if (game.getTickCount() % holdTicks == 0) {
+            game.onInput(script[position]);
+            position = (position + 1) % script.length;
+        }
+    }
+
+    public static Factory factory(GameInput[] script, int holdTicks) {
+        return (gameIndex, seed) -> new ScriptedPolicy(script, holdTicks);
+    }
+}
@@ -0,0 +1,305 @@
+package pacman.events;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import pacman.game.GameEvent;
+import pacman.game.PacManGame;
+
+/**
+ * Appends a game's {@link GameEvent}s to a binary file without slowing the game down. The ticking thread encodes each
+ * event into a pre-allocated ring buffer and returns; a background thread writes the buffered bytes through a
+ * {@link FileChannel}, waking every {@value #FLUSH_INTERVAL_MILLIS} ms or sooner once the ring is half full. The
+ * ticking thread never blocks, never does I/O and allocates nothing per event. If the writer falls a whole ring behind,
+ * events are dropped and a {@link #DROPPED} record says how many.
+ *
+ * File format: the magic {@code PMEV}, a version byte, then one record per event: the {@link GameEvent} ordinal (or
+ * {@link #DROPPED}) as a byte, the change in tick number since the previous record and the event value, each as a
+ * zigzag varint. Most records take three or four bytes.
+ *
+ * Close the log only after the game has stopped ticking.
+ */
+public final class EventLog implements PacManGame.EventListener, Closeable {
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    /** Record type of a note that {@code value} events were dropped before the record's tick. */
+    public static final int DROPPED = 0xFF;
+
+    static final int MAGIC = 0x504D4556; // "PMEV"
+    static final int VERSION = 1;
+
+    private static final int MAX_RECORD_BYTES = 1 + 10 + 10;
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+    private static final GameEvent[] EVENTS = GameEvent.values();
+
+    private final FileChannel channel;
+    private final byte[] ring;
+    private final int mask;
+    private final Thread writer;
+    // Bytes published by the ticking thread and bytes the writer has taken, both counted since the log opened.
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    // Ticking thread only.
+    private long position;
+    private long lastTick;
+    private long pendingDrops;
+    private volatile long droppedEvents;
+
+    private EventLog(FileChannel channel, int capacity) {
+        this.channel = channel;
+        this.ring = new byte[capacity];
+        this.mask = capacity - 1;
+        this.writer = new Thread(this::drain, "pacman-event-log");
+        this.writer.setDaemon(true);
+    }
+
+    /** Creates (or replaces) {@code file} and starts logging {@code game}'s events into it. */
+    public static EventLog attach(PacManGame game, Path file) throws IOException {
+        return attach(game, file, DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity ring buffer size in bytes, a power of two */
+    public static EventLog attach(PacManGame game, Path file, int capacity) throws IOException {
+        if (capacity < 64 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two of at least 64, not " + capacity);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1).putInt(MAGIC).put((byte) VERSION);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        EventLog log = new EventLog(channel, capacity);
+        log.writer.start();
+        game.setEventListener(log);
+        return log;
+    }
+
+    /** Events dropped because the writer could not keep up. */
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    @Override
+    public void onEvent(long tick, GameEvent event, int value) {
+        if (pendingDrops > 0) {
+            if (!append(DROPPED, tick, pendingDrops)) {
+                drop();
+                return;
+            }
+            pendingDrops = 0;
+        }
+        if (!append(event.ordinal(), tick, value)) {
+            drop();
+        }
+    }
+
+    private void drop() {
+        pendingDrops++;
+        droppedEvents++;
+    }
+
+    private boolean append(int type, long tick, long value) {
+        long used = position - consumed.get();
+        if (ring.length - used < MAX_RECORD_BYTES) {
+            return false;
+        }
+        put(type);
+        putVarint(zigzag(tick - lastTick));
+        putVarint(zigzag(value));
+        lastTick = tick;
+        published.lazySet(position);
+
+        // Wake the writer early the moment the ring passes half full rather than on every record.
+        int half = ring.length >> 1;
+        if (used <= half && position - consumed.get() > half) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    private void put(int b) {
+        ring[(int) position & mask] = (byte) b;
+        position++;
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            put((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        put((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void drain() {
+        ByteBuffer view = ByteBuffer.wrap(ring);
+        while (true) {
+            // Read before published: once closing is seen, every record appended before close() is published.
+            boolean closed = closing;
+            long from = consumed.get();
+            long to = published.get();
+            if (from == to) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.parkNanos(this, FLUSH_INTERVAL_MILLIS * 1_000_000L);
+                continue;
+            }
+            try {
+                if (failure == null) {
+                    int start = (int) from & mask;
+                    int length = (int) (to - from);
+                    int first = Math.min(length, ring.length - start);
+                    write(view, start, first);
+                    write(view, 0, length - first);
+                }
+            } catch (IOException e) {
+                // Keep consuming so the game is unaffected; close() reports the failure.
+                failure = e;
+            }
+            consumed.lazySet(to);
+        }
+    }
+
+    private void write(ByteBuffer view, int offset, int length) throws IOException {
+        view.limit(offset + length).position(offset);
+        while (view.hasRemaining()) {
+            channel.write(view);
+        }
+    }
+
+    /** Writes everything logged so far and closes the file. */
+    @Override
+    public void close() throws IOException {
+        if (closing) {
+            return;
+        }
+        // Drops since the last record would otherwise go unrecorded; the game has stopped, so wait for room.
+        while (pendingDrops > 0 && !append(DROPPED, lastTick, pendingDrops)) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(1_000_000L);
+        }
+        pendingDrops = 0;
+        closing = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw new IOException("Could not write the event log", failure);
+        }
+    }
+
+    /** Receives the records of a log file in order. */
+    public interface Reader {
+        /** {@code event} is null for a {@link EventLog#DROPPED} record, whose value is the number dropped. */
+        void onRecord(long tick, GameEvent event, long value);
+    }
+
+    /** Reads every record of a log file written by {@link EventLog}. */
+    public static void read(Path file, Reader reader) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not an event log");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported event log version " + version);
+            }
+            long tick = 0;
+            int type;
+            while ((type = in.read()) >= 0) {
+                tick += unzigzag(readVarint(in));
+                long value = unzigzag(readVarint(in));
+                if (type != DROPPED && type >= EVENTS.length) {
+                    throw new IOException("Unknown event type " + type);
+                }
+                reader.onRecord(tick, type == DROPPED ? null : EVENTS[type], value);
+            }
+        }
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Event log ends inside a record");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Prints how often each event occurs in a log, or with {@code --dump} every record as {@code tick event value}.
+     *
+     * Usage: {@code EventLog <file> [--dump]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].equals("--dump"))) {
+            throw new IllegalArgumentException("Usage: EventLog <file> [--dump]");
+        }
+        boolean dump = args.length == 2;
+        long[] counts = new long[EVENTS.length];
+        long[] dropped = new long[1];
+        long[] lastTick = new long[1];
+        read(Paths.get(args[0]), (tick, event, value) -> {
+            if (event == null) {
+                dropped[0] += value;
+            } else {
+                counts[event.ordinal()]++;
+            }
+            lastTick[0] = tick;
+            if (dump) {
+                System.out.println(tick + " " + (event != null ? event : "DROPPED") + " " + value);
+            }
+        });
+        if (!dump) {
+            for (GameEvent event : EVENTS) {
+                System.out.printf("%-20s %d%n", event, counts[event.ordinal()]);
+            }
+            System.out.printf("%-20s %d%nlast tick %d%n", "DROPPED", dropped[0], lastTick[0]);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package pacman.game;
+
+/**
+ * Screen areas (in board pixels) that changed since the consumer last called {@link #clear()}.
+ *
+ * Storage is a fixed-size int array, so recording never allocates. If more rectangles arrive than fit, the whole
+ * board is marked dirty instead; a game that nobody draws therefore costs a few int writes per tick and no memory.
+ */
+public final class DirtyRegions {
+    private static final int MAX_REGIONS = 64;
+
+    private final int[] rects = new int[MAX_REGIONS * 4];
+    private int size = 0;
+    private boolean allDirty = true;
+    private boolean hudDirty = true;
+
+    void add(int x, int y, int width, int height) {
+        if (allDirty) {
+            return;
+        }
+
+        if (size > 0) {
+            // Consecutive rectangles are usually an actor's old and new bounds; merge them when they touch.
+            int last = (size - 1) * 4;
+            int lastX = rects[last];
+            int lastY = rects[last + 1];
+            int lastRight = lastX + rects[last + 2];
+            int lastBottom = lastY + rects[last + 3];
+            if (x <= lastRight && x + width >= lastX && y <= lastBottom && y + height >= lastY) {
+                int minX = Math.min(x, lastX);
+                int minY = Math.min(y, lastY);
+                rects[last] = minX;
+                rects[last + 1] = minY;
+                rects[last + 2] = Math.max(x + width, lastRight) - minX;
+                rects[last + 3] = Math.max(y + height, lastBottom) - minY;
+                return;
+            }
+        }
+
+        if (size == MAX_REGIONS) {
+            markAll();
+            return;
+        }
+
+        int offset = size * 4;
+        rects[offset] = x;
+        rects[offset + 1] = y;
+        rects[offset + 2] = width;
+        rects[offset + 3] = height;
+        size++;
+    }
+
+    /** Adds everything {@code other} holds, e.g. to collect several ticks' worth of changes for one frame. */
+    public void addAll(DirtyRegions other) {
+        if (other.allDirty) {
+            markAll();
+            return;
+        }
+        hudDirty |= other.hudDirty;
+        for (int i = 0; i < other.size; i++) {
+            add(other.getX(i), other.getY(i), other.getWidth(i), other.getHeight(i));
+        }
+    }
+
+    public void markAll() {
+        allDirty = true;
+        hudDirty = true;
+        size = 0;
+    }
+
+    void markHud() {
+        hudDirty = true;
+    }
+
+    /** True when everything must be redrawn (level load, state change, overflow). */
+    public boolean isAllDirty() {
+        return allDirty;
+    }
+
+    /** True when score, lives or level changed. */
+    public boolean isHudDirty() {
+        return hudDirty;
+    }
+
+    public boolean isEmpty() {
+        return !allDirty && !hudDirty && size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getX(int index) {
+        return rects[index * 4];
+    }
+
+    public int getY(int index) {
+        return rects[index * 4 + 1];
+    }
+
+    public int getWidth(int index) {
+        return rects[index * 4 + 2];
+    }
+
+    public int getHeight(int index) {
+        return rects[index * 4 + 3];
+    }
+
+    public void clear() {
+        size = 0;
+        allDirty = false;
+        hudDirty = false;
+    }
+}
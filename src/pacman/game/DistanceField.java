@@ -0,0 +1,120 @@
+package pacman.game;
+
+import java.util.Arrays;
+
+/**
+ * Shortest-path distances (in tiles) from every tile to one target tile, following per-tile exit masks. Leaving the
+ * board sideways wraps to the other edge, matching how actors move through the tunnels.
+ *
+ * The breadth-first search is lazy: {@link #retarget} only seeds the queue, and {@link #distanceTo} expands the
+ * frontier just far enough to settle the tile asked about. Ghosts near the target therefore never pay for the far
+ * side of the board, and a field consulted by many ghosts expands each tile at most once per target. Tiles are
+ * stamped with the search generation instead of being cleared, so retargeting costs O(1).
+ */
+final class DistanceField {
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // Bit i of an exit mask is this direction; matches PacManGame's exit mask layout.
+    private static final Direction[] EXITS = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+
+    private final int columns;
+    private final int rows;
+    private final byte[] exitMasks;
+    private final int[] distances;
+    private final int[] generations;
+    private final int[] queue;
+    private int head;
+    private int tail;
+    private int generation;
+    private int target = -1;
+
+    DistanceField(int columns, int rows, byte[] exitMasks) {
+        if (exitMasks.length != columns * rows) {
+            throw new IllegalArgumentException(
+                    "Expected " + (columns * rows) + " exit masks, found " + exitMasks.length);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.exitMasks = exitMasks;
+        this.distances = new int[exitMasks.length];
+        this.generations = new int[exitMasks.length];
+        this.queue = new int[exitMasks.length];
+    }
+
+    int getTarget() {
+        return target;
+    }
+
+    /** Restarts the search from {@code tile}; call after the target moves or the exit masks change. */
+    void retarget(int tile) {
+        if (tile < 0 || tile >= distances.length) {
+            throw new IllegalArgumentException("Tile out of range: " + tile);
+        }
+        generation++;
+        if (generation == 0) {
+            // Wrapped after 2^32 searches: stale stamps could now collide with the new generation.
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        target = tile;
+        head = 0;
+        tail = 0;
+        settle(tile, 0);
+    }
+
+    /** Drops the target; every tile is unreachable until the next {@link #retarget}. */
+    void forget() {
+        target = -1;
+    }
+
+    /** Number of steps from {@code tile} to the target, or {@link #UNREACHABLE}. */
+    int distanceTo(int tile) {
+        if (tile < 0 || target < 0) {
+            return UNREACHABLE;
+        }
+        while (generations[tile] != generation && head < tail) {
+            expand(queue[head++]);
+        }
+        return generations[tile] == generation ? distances[tile] : UNREACHABLE;
+    }
+
+    /** The tile reached by leaving {@code tile} in {@code direction}, or -1 when that leaves the board vertically. */
+    int neighbour(int tile, Direction direction) {
+        return neighbour(columns, rows, tile, direction);
+    }
+
+    static int neighbour(int columns, int rows, int tile, Direction direction) {
+        int col = tile % columns + direction.dx;
+        int row = tile / columns + direction.dy;
+        if (row < 0 || row >= rows) {
+            return -1;
+        }
+        if (col < 0) {
+            col = columns - 1;
+        } else if (col >= columns) {
+            col = 0;
+        }
+        return row * columns + col;
+    }
+
+    private void expand(int tile) {
+        int mask = exitMasks[tile];
+        int next = distances[tile] + 1;
+        for (int i = 0; i < EXITS.length; i++) {
+            if ((mask & (1 << i)) == 0) {
+                continue;
+            }
+            int neighbour = neighbour(tile, EXITS[i]);
+            // An empty mask means a wall, which a wrap through the board edge could otherwise land on.
+            if (neighbour >= 0 && exitMasks[neighbour] != 0 && generations[neighbour] != generation) {
+                settle(neighbour, next);
+            }
+        }
+    }
+
+    private void settle(int tile, int distance) {
+        generations[tile] = generation;
+        distances[tile] = distance;
+        queue[tail++] = tile;
+    }
+}
@@ -0,0 +1,20 @@
+package pacman.game;
+
+/**
+ * Gameplay events reported to a {@link PacManGame.EventListener}, each with one int value whose meaning is given per
+ * constant. New constants go at the end: the ordinal is stored in event logs.
+ */
+public enum GameEvent {
+    /** A pellet was eaten; the value is its tile. */
+    PELLET_EATEN,
+    /** A power pellet was eaten; the value is its tile. */
+    POWER_PELLET_EATEN,
+    /** A frightened ghost was eaten and sent home; the value is the ghost's index. */
+    GHOST_EATEN,
+    /** A ghost caught Pac-Man; the value is the lives left. */
+    PACMAN_DIED,
+    /** The last pellet of a level was eaten; the value is that level's index. The next level loads, or the game is won. */
+    LEVEL_CLEARED,
+    /** Power mode ran out and the ghosts calmed down; the value is 0. */
+    POWER_EXPIRED
+}
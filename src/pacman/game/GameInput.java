@@ -0,0 +1,64 @@
+package pacman.game;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Everything a player can tell the game. Replays store inputs by ordinal, so only append new constants.
+ */
+public enum GameInput {
+    UP(Direction.UP),
+    DOWN(Direction.DOWN),
+    LEFT(Direction.LEFT),
+    RIGHT(Direction.RIGHT),
+    PAUSE(null),
+    RESTART(null),
+    CONFIRM(null);
+
+    private static final GameInput[] VALUES = values();
+
+    final Direction direction;
+
+    GameInput(Direction direction) {
+        this.direction = direction;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public static GameInput fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown input ordinal: " + ordinal);
+        }
+        return VALUES[ordinal];
+    }
+
+    public static GameInput fromDirection(Direction direction) {
+        if (direction == Direction.UP) {
+            return UP;
+        }
+        if (direction == Direction.DOWN) {
+            return DOWN;
+        }
+        if (direction == Direction.LEFT) {
+            return LEFT;
+        }
+        if (direction == Direction.RIGHT) {
+            return RIGHT;
+        }
+        return null;
+    }
+
+    public static GameInput fromKeyCode(int keyCode) {
+        if (keyCode == KeyEvent.VK_P) {
+            return PAUSE;
+        }
+        if (keyCode == KeyEvent.VK_R) {
+            return RESTART;
+        }
+        if (keyCode == KeyEvent.VK_ENTER) {
+            return CONFIRM;
+        }
+        return fromDirection(Direction.fromKeyCode(keyCode));
+    }
+}
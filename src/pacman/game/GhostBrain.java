@@ -0,0 +1,21 @@
+package pacman.game;
+
+/**
+ * Decides where a ghost is heading. The game asks whenever a ghost that is not frightened stands on a tile and may
+ * turn; the brain names a target tile and the game steers the ghost along a shortest path to it, using distance
+ * fields it caches and shares between every ghost with the same target. Frightened ghosts always wander.
+ *
+ * Brains are called once per ghost decision, so they must not allocate or block, and must not keep per-game state:
+ * one instance may serve many games. With {@link PacManGame#setGhostPool} they are called for different ghosts
+ * concurrently. Either way, the view shows every ghost where it stood before any ghost moved this tick.
+ *
+ * Brains get no random numbers. Returning {@link #WANDER} makes the game pick a random exit with its seeded
+ * generator, which keeps replays deterministic.
+ */
+public interface GhostBrain {
+    /** Target meaning "no particular tile": the ghost takes a random exit. */
+    int WANDER = -1;
+
+    /** The tile (row * columns + col) ghost {@code ghost} should head for, or {@link #WANDER}. */
+    int target(GhostView view, int ghost);
+}
@@ -0,0 +1,142 @@
+package pacman.game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The plan half of the game's two-phase ghost update. Planning looks at every ghost as it was when the phase began and
+ * writes only that ghost's slot here, so ghosts can be planned in any order or in parallel and the plan is the same.
+ * The game then commits the plans serially in ghost order; that is where the seeded random draws and the shared
+ * distance fields are used, so a tick plays out bit for bit as it would serially.
+ *
+ * A plan is one of {@link #KEEP} (carry on, moving or not), {@link #STEER} (take the exit closest to a target tile,
+ * or a random one if the target is unreachable) and {@link #WANDER} (take a random exit).
+ */
+final class GhostMoves {
+    static final byte KEEP = 0;
+    static final byte STEER = 1;
+    static final byte WANDER = 2;
+
+    private static final int SLICES_PER_THREAD = 4;
+
+    private byte[] kinds = new byte[8];
+    private byte[] exits = new byte[8];
+    private int[] targets = new int[8];
+    private boolean[] moving = new boolean[8];
+
+    private ForkJoinPool pool;
+    private Slice[] slices = new Slice[0];
+    private final PlanAll planAll = new PlanAll();
+    // The planning call in progress, read by the slice tasks.
+    private IntConsumer planner;
+    private int count;
+
+    void ensureCapacity(int count) {
+        if (kinds.length < count) {
+            int capacity = Math.max(count, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            exits = Arrays.copyOf(exits, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            moving = Arrays.copyOf(moving, capacity);
+        }
+    }
+
+    void keep(int ghost, boolean moves) {
+        kinds[ghost] = KEEP;
+        moving[ghost] = moves;
+    }
+
+    void steer(int ghost, int target, int exitMask) {
+        kinds[ghost] = STEER;
+        targets[ghost] = target;
+        exits[ghost] = (byte) exitMask;
+    }
+
+    void wander(int ghost, int exitMask) {
+        kinds[ghost] = WANDER;
+        exits[ghost] = (byte) exitMask;
+    }
+
+    byte getKind(int ghost) {
+        return kinds[ghost];
+    }
+
+    /** For {@link #KEEP}: whether the ghost can carry on in its direction. */
+    boolean isMoving(int ghost) {
+        return moving[ghost];
+    }
+
+    int getTarget(int ghost) {
+        return targets[ghost];
+    }
+
+    int getExits(int ghost) {
+        return exits[ghost];
+    }
+
+    /** Planning runs on {@code pool} when it has more than one thread; null plans on the calling thread. */
+    void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        int sliceCount = pool != null && pool.getParallelism() > 1 ? pool.getParallelism() * SLICES_PER_THREAD : 0;
+        slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice(i);
+        }
+    }
+
+    /**
+     * Calls {@code planner} once for every ghost below {@code count}. With a pool and at least {@code minParallel}
+     * ghosts the calls are split into contiguous slices that run concurrently; the slice tasks are reused, so this
+     * allocates nothing either way.
+     */
+    void planAll(int count, int minParallel, IntConsumer planner) {
+        if (slices.length == 0 || count < minParallel) {
+            for (int ghost = 0; ghost < count; ghost++) {
+                planner.accept(ghost);
+            }
+            return;
+        }
+        this.count = count;
+        this.planner = planner;
+        try {
+            planAll.reinitialize();
+            pool.invoke(planAll);
+        } finally {
+            this.planner = null;
+        }
+    }
+
+    private final class PlanAll extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (Slice slice : slices) {
+                slice.reinitialize();
+            }
+            ForkJoinTask.invokeAll(slices);
+        }
+    }
+
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        Slice(int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            int from = (int) ((long) index * count / slices.length);
+            int to = (int) ((long) (index + 1) * count / slices.length);
+            for (int ghost = from; ghost < to; ghost++) {
+                planner.accept(ghost);
+            }
+        }
+    }
+}
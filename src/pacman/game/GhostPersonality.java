@@ -0,0 +1,66 @@
+package pacman.game;
+
+/** The built-in ghost brains, selected in level data by their lower-case names (e.g. "ambusher"). */
+public enum GhostPersonality implements GhostBrain {
+    /** Heads straight for Pac-Man, and for its home corner in scatter mode. The default for every ghost. */
+    CHASER {
+        @Override
+        public int target(GhostView view, int ghost) {
+            if (view.isScatterMode()) {
+                return view.getHomeTile(view.getGhostType(ghost));
+            }
+            return view.getPacmanTile();
+        }
+    },
+    /** Heads for the tile a few steps ahead of Pac-Man to cut it off, and for its home corner in scatter mode. */
+    AMBUSHER {
+        @Override
+        public int target(GhostView view, int ghost) {
+            if (view.isScatterMode()) {
+                return view.getHomeTile(view.getGhostType(ghost));
+            }
+            int tile = view.getPacmanTile();
+            Direction direction = view.getPacmanDirection();
+            // Follow Pac-Man's heading until a wall, so the target is always a tile he could actually reach.
+            for (int step = 0; step < AMBUSH_TILES && view.canLeave(tile, direction); step++) {
+                int next = view.neighbour(tile, direction);
+                if (next < 0) {
+                    break;
+                }
+                tile = next;
+            }
+            return tile;
+        }
+    },
+    /** Ignores Pac-Man and tours the four home corners, moving on to the next one every {@value #PATROL_TICKS} ticks. */
+    PATROLLER {
+        @Override
+        public int target(GhostView view, int ghost) {
+            int start = view.getGhostType(ghost).ordinal();
+            int corner = (int) ((start + view.getTickCount() / PATROL_TICKS) % TYPES.length);
+            return view.getHomeTile(TYPES[corner]);
+        }
+    },
+    /** Wanders at random, as if permanently frightened. */
+    RANDOM {
+        @Override
+        public int target(GhostView view, int ghost) {
+            return WANDER;
+        }
+    };
+
+    static final int AMBUSH_TILES = 4;
+    static final int PATROL_TICKS = 200; // ~10 seconds per corner
+
+    private static final GhostType[] TYPES = GhostType.values();
+
+    /** The personality called {@code name} (case-insensitive), or null if there is none. */
+    public static GhostPersonality forName(String name) {
+        for (GhostPersonality personality : values()) {
+            if (personality.name().equalsIgnoreCase(name)) {
+                return personality;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package pacman.game;
+
+public enum GhostType {
+    BLUE(false, false),
+    ORANGE(false, true),
+    PINK(true, true),
+    RED(true, false);
+
+    // The board corner the ghost retreats to in scatter mode.
+    final boolean scattersUp;
+    final boolean scattersLeft;
+
+    GhostType(boolean scattersUp, boolean scattersLeft) {
+        this.scattersUp = scattersUp;
+        this.scattersLeft = scattersLeft;
+    }
+}
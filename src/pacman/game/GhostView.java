@@ -0,0 +1,76 @@
+package pacman.game;
+
+/**
+ * The read-only part of a game a {@link GhostBrain} may look at: the board's exits, Pac-Man, the ghosts and the
+ * clock, all in tiles (row * columns + col). Each game has one view that is reused for every decision; no method
+ * allocates or changes the game.
+ */
+public final class GhostView {
+    private final PacManGame game;
+
+    GhostView(PacManGame game) {
+        this.game = game;
+    }
+
+    public int getColumnCount() {
+        return game.getColumnCount();
+    }
+
+    public int getRowCount() {
+        return game.getRowCount();
+    }
+
+    public long getTickCount() {
+        return game.getTickCount();
+    }
+
+    /** True while the ghosts' scatter phase is running; see {@link PacManGame#isScatterMode()}. */
+    public boolean isScatterMode() {
+        return game.isScatterMode();
+    }
+
+    /** True when an actor standing on {@code tile} can move off it in {@code direction}. */
+    public boolean canLeave(int tile, Direction direction) {
+        return (game.exitMaskAt(tile) & PacManGame.directionBit(direction)) != 0;
+    }
+
+    /** The tile reached by leaving {@code tile} in {@code direction}, wrapping sideways; -1 off the top or bottom. */
+    public int neighbour(int tile, Direction direction) {
+        return DistanceField.neighbour(game.getColumnCount(), game.getRowCount(), tile, direction);
+    }
+
+    /** The open tile nearest the board corner {@code type} scatters to. */
+    public int getHomeTile(GhostType type) {
+        return game.homeTileOf(type);
+    }
+
+    /** The tile under Pac-Man's centre. */
+    public int getPacmanTile() {
+        return game.pacmanTile();
+    }
+
+    public Direction getPacmanDirection() {
+        return game.getPacman().getDirection();
+    }
+
+    public int getGhostCount() {
+        return game.getGhosts().size();
+    }
+
+    /** The tile under the centre of ghost {@code ghost}. */
+    public int getGhostTile(int ghost) {
+        return game.ghostTile(ghost);
+    }
+
+    public Direction getGhostDirection(int ghost) {
+        return game.getGhosts().getDirection(ghost);
+    }
+
+    public GhostType getGhostType(int ghost) {
+        return game.getGhosts().getType(ghost);
+    }
+
+    public boolean isGhostFrightened(int ghost) {
+        return game.getGhosts().isFrightened(ghost);
+    }
+}
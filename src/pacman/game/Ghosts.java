@@ -0,0 +1,269 @@
+package pacman.game;
+
+import java.util.Arrays;
+
+/**
+ * Every ghost of the current level, stored as parallel primitive arrays indexed by ghost number, so updating
+ * thousands of ghosts walks a few flat arrays instead of thousands of objects.
+ *
+ * Ghosts are also bucketed by the tile under their top-left corner. The buckets are kept up to date as ghosts move,
+ * so finding the ghosts that overlap a rectangle only visits the tiles around it rather than every ghost.
+ *
+ * Readers outside the package only see the accessors; the game owns all mutation.
+ */
+public final class Ghosts {
+    /** Width and height of every ghost, in pixels. */
+    public static final int SIZE = PacManGame.TILE_SIZE;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final GhostType[] TYPES = GhostType.values();
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int count;
+    private int[] x = new int[INITIAL_CAPACITY];
+    private int[] y = new int[INITIAL_CAPACITY];
+    private int[] previousX = new int[INITIAL_CAPACITY];
+    private int[] previousY = new int[INITIAL_CAPACITY];
+    private int[] startX = new int[INITIAL_CAPACITY];
+    private int[] startY = new int[INITIAL_CAPACITY];
+    private byte[] directions = new byte[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private boolean[] frightened = new boolean[INITIAL_CAPACITY];
+
+    // Tile buckets: doubly linked lists threaded through the ghost indices, one head per board tile.
+    private int columns;
+    private int rows;
+    private int[] bucketHeads = new int[0];
+    private int[] bucketTiles = new int[INITIAL_CAPACITY];
+    private int[] nextInBucket = new int[INITIAL_CAPACITY];
+    private int[] previousInBucket = new int[INITIAL_CAPACITY];
+
+    // Result of the last overlap query, in ascending ghost order.
+    private int[] hits = new int[INITIAL_CAPACITY];
+    private int hitCount;
+
+    Ghosts() {
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getX(int ghost) {
+        return x[checkIndex(ghost)];
+    }
+
+    public int getY(int ghost) {
+        return y[checkIndex(ghost)];
+    }
+
+    /** Position at the start of the last tick; renderers interpolate from here to the current position. */
+    public int getPreviousX(int ghost) {
+        return previousX[checkIndex(ghost)];
+    }
+
+    public int getPreviousY(int ghost) {
+        return previousY[checkIndex(ghost)];
+    }
+
+    public Direction getDirection(int ghost) {
+        return DIRECTIONS[directions[checkIndex(ghost)]];
+    }
+
+    public GhostType getType(int ghost) {
+        return TYPES[types[checkIndex(ghost)]];
+    }
+
+    public boolean isFrightened(int ghost) {
+        return frightened[checkIndex(ghost)];
+    }
+
+    private int checkIndex(int ghost) {
+        if (ghost < 0 || ghost >= count) {
+            throw new IndexOutOfBoundsException("Ghost " + ghost + " of " + count);
+        }
+        return ghost;
+    }
+
+    /** Removes every ghost and sizes the tile buckets for a {@code columns} x {@code rows} board. */
+    void clear(int columns, int rows) {
+        count = 0;
+        this.columns = columns;
+        this.rows = rows;
+        if (bucketHeads.length != columns * rows) {
+            bucketHeads = new int[columns * rows];
+        }
+        Arrays.fill(bucketHeads, -1);
+    }
+
+    void add(int startX, int startY, GhostType type) {
+        if (count == x.length) {
+            grow();
+        }
+        int ghost = count++;
+        this.startX[ghost] = startX;
+        this.startY[ghost] = startY;
+        x[ghost] = startX;
+        y[ghost] = startY;
+        previousX[ghost] = startX;
+        previousY[ghost] = startY;
+        directions[ghost] = (byte) Direction.RIGHT.ordinal();
+        types[ghost] = (byte) type.ordinal();
+        frightened[ghost] = false;
+        bucketTiles[ghost] = -1;
+        updateBucket(ghost);
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        startX = Arrays.copyOf(startX, capacity);
+        startY = Arrays.copyOf(startY, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        types = Arrays.copyOf(types, capacity);
+        frightened = Arrays.copyOf(frightened, capacity);
+        bucketTiles = Arrays.copyOf(bucketTiles, capacity);
+        nextInBucket = Arrays.copyOf(nextInBucket, capacity);
+        previousInBucket = Arrays.copyOf(previousInBucket, capacity);
+        hits = Arrays.copyOf(hits, capacity);
+    }
+
+    void setFrightened(int ghost, boolean value) {
+        frightened[ghost] = value;
+    }
+
+    void setDirection(int ghost, Direction direction) {
+        if (direction != null && direction != Direction.NONE) {
+            directions[ghost] = (byte) direction.ordinal();
+        }
+    }
+
+    void rememberPositions() {
+        System.arraycopy(x, 0, previousX, 0, count);
+        System.arraycopy(y, 0, previousY, 0, count);
+    }
+
+    int getStartX(int ghost) {
+        return startX[ghost];
+    }
+
+    int getStartY(int ghost) {
+        return startY[ghost];
+    }
+
+    /** Puts the ghost at ({@code newX}, {@code newY}) with no movement rules; used to mirror a remote game. */
+    void place(int ghost, int newX, int newY) {
+        moveTo(ghost, newX, newY);
+    }
+
+    void place(int ghost, int newX, int newY, int newPreviousX, int newPreviousY) {
+        previousX[ghost] = newPreviousX;
+        previousY[ghost] = newPreviousY;
+        moveTo(ghost, newX, newY);
+    }
+
+    void reset(int ghost) {
+        moveTo(ghost, startX[ghost], startY[ghost]);
+    }
+
+    /** Steps the ghost one {@link PacManGame#SPEED} in its direction, leaving one side of the board for the other. */
+    void move(int ghost, int boardWidth) {
+        Direction direction = DIRECTIONS[directions[ghost]];
+        int newX = x[ghost] + direction.dx * PacManGame.SPEED;
+        if (newX < 0) {
+            newX = boardWidth - SIZE;
+        } else if (newX > boardWidth - SIZE) {
+            newX = 0;
+        }
+        moveTo(ghost, newX, y[ghost] + direction.dy * PacManGame.SPEED);
+    }
+
+    private void moveTo(int ghost, int newX, int newY) {
+        x[ghost] = newX;
+        y[ghost] = newY;
+        updateBucket(ghost);
+    }
+
+    private void updateBucket(int ghost) {
+        int col = Math.max(0, Math.min(columns - 1, Math.floorDiv(x[ghost], SIZE)));
+        int row = Math.max(0, Math.min(rows - 1, Math.floorDiv(y[ghost], SIZE)));
+        int tile = row * columns + col;
+        int oldTile = bucketTiles[ghost];
+        if (tile == oldTile) {
+            return;
+        }
+
+        if (oldTile >= 0) {
+            int previous = previousInBucket[ghost];
+            int next = nextInBucket[ghost];
+            if (previous >= 0) {
+                nextInBucket[previous] = next;
+            } else {
+                bucketHeads[oldTile] = next;
+            }
+            if (next >= 0) {
+                previousInBucket[next] = previous;
+            }
+        }
+
+        int head = bucketHeads[tile];
+        previousInBucket[ghost] = -1;
+        nextInBucket[ghost] = head;
+        if (head >= 0) {
+            previousInBucket[head] = ghost;
+        }
+        bucketHeads[tile] = ghost;
+        bucketTiles[ghost] = tile;
+    }
+
+    /**
+     * Finds the ghosts overlapping the rectangle; read them with {@link #hit(int)}, lowest index first. A ghost
+     * overlaps only if its top-left tile is at most one tile above or left of the rectangle, so only those buckets
+     * are visited.
+     */
+    int findOverlapping(int left, int top, int width, int height) {
+        hitCount = collectOverlapping(left, top, width, height, hits);
+        return hitCount;
+    }
+
+    /**
+     * Writes the index of every ghost overlapping the rectangle into {@code result}, lowest first, and returns how
+     * many. Like the collision query it visits only the buckets around the rectangle, so the cost follows the ghosts
+     * there rather than {@link #size()}. {@code result} must have room for {@link #size()} ghosts.
+     */
+    public int findOverlapping(int left, int top, int width, int height, int[] result) {
+        if (result.length < count) {
+            throw new IllegalArgumentException("result holds " + result.length + " ghosts, not " + count);
+        }
+        return collectOverlapping(left, top, width, height, result);
+    }
+
+    private int collectOverlapping(int left, int top, int width, int height, int[] result) {
+        int firstCol = Math.max(0, Math.floorDiv(left - SIZE + 1, SIZE));
+        int lastCol = Math.min(columns - 1, Math.floorDiv(left + width - 1, SIZE));
+        int firstRow = Math.max(0, Math.floorDiv(top - SIZE + 1, SIZE));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(top + height - 1, SIZE));
+
+        int found = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                for (int ghost = bucketHeads[row * columns + col]; ghost >= 0; ghost = nextInBucket[ghost]) {
+                    if (x[ghost] < left + width && x[ghost] + SIZE > left
+                            && y[ghost] < top + height && y[ghost] + SIZE > top) {
+                        result[found++] = ghost;
+                    }
+                }
+            }
+        }
+        // Buckets are visited by tile; callers expect ghost order.
+        Arrays.sort(result, 0, found);
+        return found;
+    }
+
+    int hit(int index) {
+        return hits[index];
+    }
+}
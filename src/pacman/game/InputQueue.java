@@ -0,0 +1,119 @@
+package pacman.game;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands player inputs from any thread (normally the EDT) to the thread that ticks the game, without locks or
+ * allocation. Each input carries the {@link System#nanoTime()} it was captured at. {@link PacManGame#tick()} drains
+ * the queue before anything else, so an input always takes effect at the start of a tick and never part-way through
+ * one or between a tick and the frame drawn from it.
+ *
+ * Once applied, an input's timestamp is kept until the view asks, through {@link #pollShown(long)}, which inputs a
+ * frame it just presented includes; the difference is the input-to-display latency.
+ *
+ * The queue is bounded: {@link #offer} fails when {@link #CAPACITY} inputs are waiting, which only happens if the
+ * game stopped ticking.
+ */
+public final class InputQueue {
+    public static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    // A bounded multi-producer ring: slot i is free for the producer claiming position p when sequences[i] == p, and
+    // holds that producer's input once sequences[i] == p + 1. The sequence writes publish the plain array writes.
+    private final GameInput[] inputs = new GameInput[CAPACITY];
+    private final long[] timestamps = new long[CAPACITY];
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    // Ticking thread only.
+    private long head;
+
+    // Applied inputs not yet shown, oldest first; ticking thread only. When full, the oldest is forgotten.
+    private final long[] appliedTimestamps = new long[CAPACITY];
+    private final long[] appliedTicks = new long[CAPACITY];
+    private int appliedHead;
+    private int appliedCount;
+
+    InputQueue() {
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** Queues {@code input}, captured at {@code timestampNanos}; false if the queue is full. Safe from any thread. */
+    public boolean offer(GameInput input, long timestampNanos) {
+        long position;
+        int slot;
+        while (true) {
+            position = tail.get();
+            slot = (int) position & MASK;
+            long available = sequences.get(slot) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            // Otherwise another producer claimed this position first; try the next one.
+        }
+        inputs[slot] = input;
+        timestamps[slot] = timestampNanos;
+        sequences.set(slot, position + 1);
+        return true;
+    }
+
+    /** Inputs turned away because the queue was full. */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Applies every queued input to {@code game}, in the order they were queued. Inputs applied now are in effect once
+     * the game reaches tick count {@code shownAtTick}.
+     */
+    void drain(PacManGame game, long shownAtTick) {
+        while (true) {
+            int slot = (int) head & MASK;
+            if (sequences.get(slot) != head + 1) {
+                return;
+            }
+            GameInput input = inputs[slot];
+            long timestamp = timestamps[slot];
+            inputs[slot] = null;
+            sequences.set(slot, head + CAPACITY);
+            head++;
+
+            applied(timestamp, shownAtTick);
+            game.onInput(input);
+        }
+    }
+
+    private void applied(long timestamp, long shownAtTick) {
+        if (appliedCount == CAPACITY) {
+            appliedHead = (appliedHead + 1) & MASK;
+            appliedCount--;
+        }
+        int slot = (appliedHead + appliedCount) & MASK;
+        appliedTimestamps[slot] = timestamp;
+        appliedTicks[slot] = shownAtTick;
+        appliedCount++;
+    }
+
+    /**
+     * For a frame just presented showing the game at tick count {@code tickCount}: removes and returns the capture
+     * time of the oldest input that frame is the first to include, or -1 when there is none left. Call repeatedly
+     * after each frame, on the ticking thread.
+     */
+    public long pollShown(long tickCount) {
+        if (appliedCount == 0 || appliedTicks[appliedHead] > tickCount) {
+            return -1;
+        }
+        long timestamp = appliedTimestamps[appliedHead];
+        appliedHead = (appliedHead + 1) & MASK;
+        appliedCount--;
+        return timestamp;
+    }
+}
@@ -1,105 +1,30 @@
 package pacman.game;
 
-import java.awt.*;
-import java.awt.event.KeyEvent;
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Random;
-import javax.swing.ImageIcon;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import pacman.level.BuiltInLevels;
+import pacman.level.Level;
+import pacman.level.LevelSource;
+
+/**
+ * Render-free simulation core: state, input, movement, collisions and levels.
+ * Drawing lives in {@code pacman.render.PacManRenderer}, which only reads this class,
+ * so the game can run on a headless JVM without loading any sprites.
+ */
 public class PacManGame {
-    public static final int ROW_COUNT = 21;
-    public static final int COLUMN_COUNT = 19;
     public static final int TILE_SIZE = 32;
     public static final int SPEED = TILE_SIZE / 4;
-    public static final int BOARD_WIDTH = COLUMN_COUNT * TILE_SIZE;
-    public static final int BOARD_HEIGHT = ROW_COUNT * TILE_SIZE;
     public static final int TICK_MS = 50;
 
-    public static final class Assets {
-        final Image wall;
-        final Image blueGhost;
-        final Image orangeGhost;
-        final Image pinkGhost;
-        final Image redGhost;
-        final Image scaredGhost;
-        final Image pacmanUp;
-        final Image pacmanDown;
-        final Image pacmanLeft;
-        final Image pacmanRight;
-        final Image powerPellet;
-
-        private Assets(
-                Image wall,
-                Image blueGhost,
-                Image orangeGhost,
-                Image pinkGhost,
-                Image redGhost,
-                Image scaredGhost,
-                Image pacmanUp,
-                Image pacmanDown,
-                Image pacmanLeft,
-                Image pacmanRight,
-                Image powerPellet) {
-            this.wall = wall;
-            this.blueGhost = blueGhost;
-            this.orangeGhost = orangeGhost;
-            this.pinkGhost = pinkGhost;
-            this.redGhost = redGhost;
-            this.scaredGhost = scaredGhost;
-            this.pacmanUp = pacmanUp;
-            this.pacmanDown = pacmanDown;
-            this.pacmanLeft = pacmanLeft;
-            this.pacmanRight = pacmanRight;
-            this.powerPellet = powerPellet;
-        }
-
-        public static Assets load(Class<?> resourceBase) {
-            Image wall = loadImage(resourceBase, "wall.png");
-            Image blueGhost = loadImage(resourceBase, "blueGhost.png");
-            Image orangeGhost = loadImage(resourceBase, "orangeGhost.png");
-            Image pinkGhost = loadImage(resourceBase, "pinkGhost.png");
-            Image redGhost = loadImage(resourceBase, "redGhost.png");
-            Image scaredGhost = loadImage(resourceBase, "scaredGhost.png");
-            Image pacmanUp = loadImage(resourceBase, "pacmanUp.png");
-            Image pacmanDown = loadImage(resourceBase, "pacmanDown.png");
-            Image pacmanLeft = loadImage(resourceBase, "pacmanLeft.png");
-            Image pacmanRight = loadImage(resourceBase, "pacmanRight.png");
-            Image powerPellet = loadImage(resourceBase, "powerFood.png");
-
-            return new Assets(
-                    wall,
-                    blueGhost,
-                    orangeGhost,
-                    pinkGhost,
-                    redGhost,
-                    scaredGhost,
-                    pacmanUp,
-                    pacmanDown,
-                    pacmanLeft,
-                    pacmanRight,
-                    powerPellet);
-        }
-
-        private static Image loadImage(Class<?> resourceBase, String filename) {
-            // Resources live under src/assets/images and are copied to bin/assets/images by VS Code.
-            URL url = resourceBase.getResource("/assets/images/" + filename);
-            if (url == null) {
-                // Backwards-compatible fallbacks (older project structure).
-                url = resourceBase.getResource("/images/" + filename);
-            }
-            if (url == null) {
-                url = resourceBase.getResource("/" + filename);
-            }
-            if (url == null) {
-                throw new IllegalStateException("Missing resource: " + filename);
-            }
-            return new ImageIcon(url).getImage();
-        }
-    }
+    private static final int PELLET_SIZE = 4;
+    private static final int PELLET_OFFSET = (TILE_SIZE - PELLET_SIZE) / 2;
+    // With fewer ghosts, planning them in parallel costs more in task hand-off than it saves.
+    private static final int MIN_PARALLEL_GHOSTS = 256;
 
     private static final Direction[] MOVE_DIRECTIONS = {
             Direction.UP,
@@ -108,134 +33,282 @@ public class PacManGame {
             Direction.RIGHT
     };
 
-    private final Random random = new Random();
-    private final Assets assets;
+    // Exit masks have one bit per MOVE_DIRECTIONS entry (bit i = MOVE_DIRECTIONS[i]).
+    // For every mask, the directions it contains in MOVE_DIRECTIONS order: the candidates a ghost chooses from.
+    private static final Direction[][] EXIT_DIRECTIONS = new Direction[1 << MOVE_DIRECTIONS.length][];
+
+    static {
+        for (int mask = 0; mask < EXIT_DIRECTIONS.length; mask++) {
+            Direction[] exits = new Direction[Integer.bitCount(mask)];
+            int count = 0;
+            for (int i = 0; i < MOVE_DIRECTIONS.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    exits[count++] = MOVE_DIRECTIONS[i];
+                }
+            }
+            EXIT_DIRECTIONS[mask] = exits;
+        }
+    }
+
+    private long seed;
+    private final Random random;
+    private final LevelSource levels;
+    private final Function<String, GhostBrain> brainsByName;
+    private long tickCount = 0;
+    private InputListener inputListener;
+    private PhaseListener phaseListener;
+    private EventListener eventListener;
+    private final InputQueue inputQueue = new InputQueue();
+    private final DirtyRegions dirtyRegions = new DirtyRegions();
 
     private GameState gameState = GameState.RUNNING;
     private int score = 0;
     private int lives = 3;
     private int levelIndex = 0;
+    private long levelLoadCount = 0;
 
     private Direction requestedDirection = Direction.RIGHT;
 
     private int powerTicksRemaining = 0;
     private final int powerDurationTicks = 140; // ~7 seconds at 50ms per tick
+    private final int scatterDurationTicks = 140; // ~7 seconds heading for the home corners...
+    private final int chaseDurationTicks = 400; // ...then ~20 seconds hunting Pac-Man, repeating
 
     private int deathTicksRemaining = 0;
     private final int deathDurationTicks = 60; // ~3 seconds
-    private final int deathMouthCloseTicks = 40;
     private Direction deathDirection = Direction.RIGHT;
 
     private Player pacman;
-    private final List<Wall> walls = new ArrayList<>();
-    private final List<Pellet> pellets = new ArrayList<>();
-    private final List<Ghost> ghosts = new ArrayList<>();
-
-    // Tile legend:
-    // - X: wall
-    // - ' ': pellet
-    // - F: power pellet
-    // - P: Pac-Man start
-    // - b/o/r/p: ghost spawns
-    // - O: empty path (no pellet)
-    private final String[][] levelMaps = {
-            {
-                    "XXXXXXXXXXXXXXXXXXX",
-                    "XF       X       FX",
-                    "X XX XXX X XXX XX X",
-                    "X                 X",
-                    "X XX X XXXXX X XX X",
-                    "X    X       X    X",
-                    "XXXX XXXX XXXX XXXX",
-                    "OOOX X       X XOOO",
-                    "XXXX X XXrXX X XXXX",
-                    "OX       bpo     XO",
-                    "XXXX X XXXXX X XXXX",
-                    "OOOX X       X XOOO",
-                    "XXXX X XXXXX X XXXX",
-                    "X        X        X",
-                    "X XX XXX X XXX XX X",
-                    "X  X     P     X  X",
-                    "XX X X XXXXX X X XX",
-                    "X    X   X   X    X",
-                    "X XXXXXX X XXXXXX X",
-                    "XF               FX",
-                    "XXXXXXXXXXXXXXXXXXX"
-            },
-            {
-                    "XXXXXXXXXXXXXXXXXXX",
-                    "XF  X    X    X  FX",
-                    "X XX XXX X XXX XX X",
-                    "X  X           X  X",
-                    "X XX X XXXXX X XX X",
-                    "X    X X   X X    X",
-                    "XXXX XXXX XXXX XXXX",
-                    "OOOX X       X XOOO",
-                    "XXXX X XXrXX X XXXX",
-                    "OX       bpo     XO",
-                    "XXXX X XXXXX X XXXX",
-                    "OOOX X       X XOOO",
-                    "XXXX X XXXXX X XXXX",
-                    "X XXX    X    XXX X",
-                    "X XX XXX X XXX XX X",
-                    "X  X     P     X  X",
-                    "XX X X XXXXX X X XX",
-                    "X    X   X   X    X",
-                    "X XXXXXX X XXXXXX X",
-                    "X   F         F   X",
-                    "XXXXXXXXXXXXXXXXXXX"
-            },
-            {
-                    "XXXXXXXXXXXXXXXXXXX",
-                    "XF   X       X   FX",
-                    "X XXX XXXXXXX XXX X",
-                    "X   X         X   X",
-                    "XXX X XXX XXX X XXX",
-                    "X                 X",
-                    "XXXX XXXX XXXX XXXX",
-                    "OOOX X       X XOOO",
-                    "XXXX X XXrXX X XXXX",
-                    "OX       bpo     XO",
-                    "XXXX X XXXXX X XXXX",
-                    "OOOX X       X XOOO",
-                    "XXXX X XXXXX X XXXX",
-                    "X                 X",
-                    "X XXX XXXXXXX XXX X",
-                    "X   X    P    X   X",
-                    "XXX X XXX XXX X XXX",
-                    "X   X         X   X",
-                    "X XXX XXXXXXX XXX X",
-                    "XF               FX",
-                    "XXXXXXXXXXXXXXXXXXX"
-            }
-    };
+    // Size of the current level in tiles. The per-tile arrays below are reallocated when a level of another size loads.
+    private int columnCount;
+    private int rowCount;
+    // Row-major wall occupancy for the current level; canMove checks only the tiles an actor overlaps.
+    private boolean[] wallTiles = new boolean[0];
+    // Per-tile exit masks, rebuilt on level load: the directions a tile-aligned actor standing there can move in.
+    private byte[] exitMasks = new byte[0];
+    // Distance fields for the tiles ghost brains are heading for, shared by every ghost with the same target.
+    private final TargetFields targetFields = new TargetFields();
+    // Per GhostType ordinal, set on level load: the open tile nearest its home corner, and the brain driving it.
+    private final int[] homeTiles = new int[GhostType.values().length];
+    private final GhostBrain[] ghostBrains = new GhostBrain[GhostType.values().length];
+    private final GhostView ghostView = new GhostView(this);
+    private final GhostMoves ghostMoves = new GhostMoves();
+    private final IntConsumer ghostPlanner = this::planGhost;
+    // Ticks spent outside power mode since the round started; selects scatter or chase.
+    private int ghostModeTicks = 0;
+    // Pellets are indexed by tile (row * columnCount + col) so eating only inspects the tiles Pac-Man overlaps.
+    private final BitSet pelletTiles = new BitSet();
+    private final BitSet powerPelletTiles = new BitSet();
+    private int pelletsRemaining = 0;
+    private final Ghosts ghosts = new Ghosts();
+
+    public PacManGame() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Creates a game whose ghost decisions come from {@code seed}. Two games with the same seed that receive
+     * the same inputs on the same ticks stay identical.
+     */
+    public PacManGame(long seed) {
+        this(seed, BuiltInLevels.INSTANCE);
+    }
 
-    public PacManGame(Assets assets) {
-        this.assets = Objects.requireNonNull(assets, "assets");
+    /** Same as {@link #PacManGame(long)}, playing the levels of {@code levels} in order. */
+    public PacManGame(long seed, LevelSource levels) {
+        this(seed, levels, GhostPersonality::forName);
+    }
+
+    /**
+     * Same as {@link #PacManGame(long, LevelSource)}, resolving the ghost brain names in level data with
+     * {@code brainsByName}, which returns null for names it does not know. Ghosts without a name are
+     * {@link GhostPersonality#CHASER}s. Every name in every level is checked here, so a level that names an unknown
+     * brain fails now rather than when play reaches it.
+     */
+    public PacManGame(long seed, LevelSource levels, Function<String, GhostBrain> brainsByName) {
+        if (levels.getLevelCount() < 1) {
+            throw new IllegalArgumentException("No levels to play");
+        }
+        for (String name : levels.getGhostBrainNames()) {
+            if (brainsByName.apply(name) == null) {
+                throw new IllegalArgumentException("The levels use an unknown ghost brain '" + name + "'");
+            }
+        }
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.levels = levels;
+        this.brainsByName = brainsByName;
         loadLevel(0);
         resetRound();
     }
 
+    /** Width of the current level in pixels; changes only when a level is loaded. */
     public int getBoardWidth() {
-        return BOARD_WIDTH;
+        return columnCount * TILE_SIZE;
     }
 
     public int getBoardHeight() {
-        return BOARD_HEIGHT;
+        return rowCount * TILE_SIZE;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Number of {@link #tick()} calls so far, including paused and dying ticks. */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    public int getLevelCount() {
+        return levels.getLevelCount();
+    }
+
+    public Player getPacman() {
+        return pacman;
+    }
+
+    /** Read-only view of the current level's ghosts; it stays valid across level loads. */
+    public Ghosts getGhosts() {
+        return ghosts;
+    }
+
+    public boolean isWall(int col, int row) {
+        return isWallTile(col, row);
+    }
+
+    /**
+     * Returns the first tile index ({@code row * getColumnCount() + col}) at or after {@code fromTile}
+     * holding a normal pellet, or -1 if there is none.
+     */
+    public int nextPelletTile(int fromTile) {
+        return pelletTiles.nextSetBit(fromTile);
+    }
+
+    /** Same as {@link #nextPelletTile(int)} for power pellets. */
+    public int nextPowerPelletTile(int fromTile) {
+        return powerPelletTiles.nextSetBit(fromTile);
+    }
+
+    public boolean hasPellet(int tile) {
+        return pelletTiles.get(tile);
+    }
+
+    public boolean hasPowerPellet(int tile) {
+        return powerPelletTiles.get(tile);
+    }
+
+    public int getPelletsRemaining() {
+        return pelletsRemaining;
+    }
+
+    /**
+     * Incremented every time a level is (re)loaded, including restarts. Renderers use it to know when cached
+     * walls and pellets must be rebuilt.
+     */
+    public long getLevelLoadCount() {
+        return levelLoadCount;
+    }
+
+    /** Areas changed by ticks and inputs since the view last cleared them. */
+    public DirtyRegions getDirtyRegions() {
+        return dirtyRegions;
+    }
+
+    public boolean isPowerModeActive() {
+        return powerTicksRemaining > 0;
+    }
+
+    public int getDeathTicksElapsed() {
+        return deathDurationTicks - deathTicksRemaining;
+    }
+
+    public int getDeathDurationTicks() {
+        return deathDurationTicks;
+    }
+
+    public Direction getDeathDirection() {
+        return deathDirection;
+    }
+
+    public void setInputListener(InputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    public void setPhaseListener(PhaseListener phaseListener) {
+        this.phaseListener = phaseListener;
+    }
+
+    /** Receives every {@link GameEvent} on the ticking thread; null to stop. */
+    public void setEventListener(EventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Plans ghost moves on {@code pool} on levels with at least {@value #MIN_PARALLEL_GHOSTS} ghosts; null (the
+     * default) keeps the whole update on the ticking thread. The game plays out identically either way.
+     */
+    public void setGhostPool(ForkJoinPool pool) {
+        ghostMoves.setPool(pool);
+    }
+
+    /** Where other threads hand player input to the game; it is applied at the start of the next {@link #tick()}. */
+    public InputQueue getInputQueue() {
+        return inputQueue;
     }
 
     public void onKeyPressed(int keyCode) {
-        if (keyCode == KeyEvent.VK_P) {
+        GameInput input = GameInput.fromKeyCode(keyCode);
+        if (input != null) {
+            onInput(input);
+        }
+    }
+
+    /**
+     * Applies an input before the next {@link #tick()}. This is the only way player input reaches the
+     * simulation, which is what makes a seed plus the recorded inputs enough to replay a session. Call it on the
+     * ticking thread; other threads go through {@link #getInputQueue()}.
+     */
+    public void onInput(GameInput input) {
+        if (inputListener != null) {
+            inputListener.onInput(tickCount, input);
+        }
+
+        if (input == GameInput.PAUSE) {
             togglePause();
             return;
         }
 
-        if (keyCode == KeyEvent.VK_R) {
+        if (input == GameInput.RESTART) {
             restartGame();
             return;
         }
 
-        if (keyCode == KeyEvent.VK_ENTER) {
+        if (input == GameInput.CONFIRM) {
             if (gameState == GameState.GAME_OVER || gameState == GameState.WIN) {
                 restartGame();
             }
@@ -246,13 +319,34 @@ public class PacManGame {
             return;
         }
 
-        Direction direction = Direction.fromKeyCode(keyCode);
-        if (direction != null) {
-            requestedDirection = direction;
-        }
+        requestedDirection = input.direction;
     }
 
     public void tick() {
+        // Queued input lands first, exactly where inputs applied through onInput before the tick would have.
+        inputQueue.drain(this, tickCount + 1);
+        tickCount++;
+
+        GameState stateBefore = gameState;
+        int scoreBefore = score;
+        int livesBefore = lives;
+        int levelBefore = levelIndex;
+        long levelLoadsBefore = levelLoadCount;
+        rememberActorPositions();
+
+        step();
+
+        if (gameState != stateBefore || levelLoadCount != levelLoadsBefore) {
+            dirtyRegions.markAll();
+        } else {
+            markMovedActorsDirty();
+        }
+        if (score != scoreBefore || lives != livesBefore || levelIndex != levelBefore) {
+            dirtyRegions.markHud();
+        }
+    }
+
+    private void step() {
         if (gameState == GameState.DYING) {
             updateDeathAnimation();
             return;
@@ -262,43 +356,96 @@ public class PacManGame {
             return;
         }
 
+        // Read once per tick: when no listener is attached (or it is switched off) each phase costs one branch.
+        PhaseListener listener = phaseListener;
+        if (listener != null && !listener.isEnabled()) {
+            listener = null;
+        }
+        long phaseStart = listener != null ? System.nanoTime() : 0;
+
         // Update order matters:
         // player move -> eat -> ghosts move -> collisions -> level progression -> timers
         movePacman();
+        phaseStart = endPhase(listener, TickPhase.MOVE_PACMAN, phaseStart);
         eatPellets();
+        phaseStart = endPhase(listener, TickPhase.EAT_PELLETS, phaseStart);
         moveGhosts();
+        phaseStart = endPhase(listener, TickPhase.MOVE_GHOSTS, phaseStart);
         handleGhostCollisions();
+        phaseStart = endPhase(listener, TickPhase.GHOST_COLLISIONS, phaseStart);
         if (gameState != GameState.RUNNING) {
             return;
         }
         advanceLevelIfComplete();
+        phaseStart = endPhase(listener, TickPhase.LEVEL_PROGRESSION, phaseStart);
         updatePowerMode();
+        endPhase(listener, TickPhase.POWER_MODE, phaseStart);
     }
 
-    public void draw(Graphics g) {
-        drawWalls(g);
-        drawPellets(g);
-        if (gameState != GameState.DYING) {
-            pacman.draw(g);
-        }
-        for (Ghost ghost : ghosts) {
-            ghost.draw(g);
-        }
-        if (gameState == GameState.DYING) {
-            drawDeathAnimation(g);
+    private long endPhase(PhaseListener listener, TickPhase phase, long phaseStart) {
+        if (listener == null) {
+            return 0;
         }
-        drawHud(g);
-        drawOverlay(g);
+        listener.phaseCompleted(phase, tickCount, System.nanoTime() - phaseStart, ghosts.size(), pelletsRemaining);
+        // Restart the clock after the callback so listener overhead is not charged to the next phase.
+        return System.nanoTime();
     }
 
     private void togglePause() {
         if (gameState == GameState.RUNNING) {
             gameState = GameState.PAUSED;
+            dirtyRegions.markAll();
         } else if (gameState == GameState.PAUSED) {
             gameState = GameState.RUNNING;
+            dirtyRegions.markAll();
         }
     }
 
+    /**
+     * Starts over from tick 0 with ghost decisions drawn from {@code seed}, playing out exactly as a game newly
+     * constructed with that seed would, but reusing this game's buffers. Meant for training loops that reset
+     * thousands of times; it bypasses the input listener, so a recording does not survive it.
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        random.setSeed(seed);
+        tickCount = 0;
+        deathTicksRemaining = 0;
+        deathDirection = Direction.RIGHT;
+        restartGame();
+    }
+
+    // Spectator mirroring: StateDecoder copies a server's game into a local one that is drawn but never ticked.
+
+    void mirrorLevel(int newLevelIndex) {
+        loadLevel(newLevelIndex);
+    }
+
+    void mirrorStatus(long tickCount, GameState gameState, int score, int lives, boolean powered,
+            int deathTicksElapsed, Direction deathDirection) {
+        this.tickCount = tickCount;
+        this.gameState = gameState;
+        this.score = score;
+        this.lives = lives;
+        this.powerTicksRemaining = powered ? 1 : 0;
+        this.deathTicksRemaining = deathDurationTicks - deathTicksElapsed;
+        this.deathDirection = deathDirection;
+        dirtyRegions.markAll();
+    }
+
+    void mirrorPelletEaten(int tile) {
+        if (pelletTiles.get(tile) || powerPelletTiles.get(tile)) {
+            pelletTiles.clear(tile);
+            powerPelletTiles.clear(tile);
+            pelletsRemaining--;
+        }
+    }
+
+    /** Starts a mirrored tick: every actor's previous position becomes its current one, as at the start of tick(). */
+    void mirrorTick() {
+        rememberActorPositions();
+    }
+
     private void restartGame() {
         score = 0;
         lives = 3;
@@ -313,38 +460,44 @@ public class PacManGame {
 
     private void loadLevel(int newLevelIndex) {
         levelIndex = newLevelIndex;
-        walls.clear();
-        pellets.clear();
-        ghosts.clear();
+        levelLoadCount++;
+        dirtyRegions.markAll();
+
+        // Only the level being played is held; a level pack parses it on request.
+        Level level = levels.getLevel(levelIndex);
+        resize(level.getColumns(), level.getRows());
+        Arrays.fill(wallTiles, false);
+        pelletTiles.clear();
+        powerPelletTiles.clear();
+        pelletsRemaining = 0;
+        ghosts.clear(columnCount, rowCount);
         pacman = null;
 
-        String[] map = levelMaps[levelIndex];
-        validateMap(map);
-
-        for (int row = 0; row < ROW_COUNT; row++) {
-            String mapRow = map[row];
-            for (int col = 0; col < COLUMN_COUNT; col++) {
-                char tile = mapRow.charAt(col);
+        for (int row = 0; row < rowCount; row++) {
+            for (int col = 0; col < columnCount; col++) {
+                char tile = level.tileAt(col, row);
 
                 int x = col * TILE_SIZE;
                 int y = row * TILE_SIZE;
 
                 if (tile == 'X') {
-                    walls.add(new Wall(x, y, assets.wall));
+                    wallTiles[row * columnCount + col] = true;
                 } else if (tile == ' ') {
-                    pellets.add(Pellet.normal(x + 14, y + 14));
+                    pelletTiles.set(row * columnCount + col);
+                    pelletsRemaining++;
                 } else if (tile == 'F') {
-                    pellets.add(Pellet.power(x, y, assets.powerPellet));
+                    powerPelletTiles.set(row * columnCount + col);
+                    pelletsRemaining++;
                 } else if (tile == 'P') {
-                    pacman = new Player(x, y, assets.pacmanUp, assets.pacmanDown, assets.pacmanLeft, assets.pacmanRight);
+                    pacman = new Player(x, y);
                 } else if (tile == 'b') {
-                    ghosts.add(new Ghost(x, y, assets.blueGhost, assets.scaredGhost));
+                    ghosts.add(x, y, GhostType.BLUE);
                 } else if (tile == 'o') {
-                    ghosts.add(new Ghost(x, y, assets.orangeGhost, assets.scaredGhost));
+                    ghosts.add(x, y, GhostType.ORANGE);
                 } else if (tile == 'p') {
-                    ghosts.add(new Ghost(x, y, assets.pinkGhost, assets.scaredGhost));
+                    ghosts.add(x, y, GhostType.PINK);
                 } else if (tile == 'r') {
-                    ghosts.add(new Ghost(x, y, assets.redGhost, assets.scaredGhost));
+                    ghosts.add(x, y, GhostType.RED);
                 }
             }
         }
@@ -352,36 +505,109 @@ public class PacManGame {
         if (pacman == null) {
             throw new IllegalStateException("Level " + (levelIndex + 1) + " is missing Pac-Man start tile 'P'");
         }
+        computeExitMasks();
+        targetFields.reset(columnCount, rowCount, exitMasks);
+        ghostMoves.ensureCapacity(ghosts.size());
+        for (GhostType type : GhostType.values()) {
+            homeTiles[type.ordinal()] = homeTile(type);
+            ghostBrains[type.ordinal()] = ghostBrain(level, type);
+        }
+    }
+
+    private GhostBrain ghostBrain(Level level, GhostType type) {
+        // GHOST_SPAWNS lists the spawn letters in GhostType order.
+        char spawn = Level.GHOST_SPAWNS.charAt(type.ordinal());
+        String name = level.getGhostBrain(spawn);
+        if (name == null) {
+            return GhostPersonality.CHASER;
+        }
+        GhostBrain brain = brainsByName.apply(name);
+        if (brain == null) {
+            throw new IllegalStateException(
+                    "Level " + (levelIndex + 1) + " has an unknown ghost brain '" + name + "' for spawn '" + spawn + "'");
+        }
+        return brain;
+    }
+
+    private void computeExitMasks() {
+        for (int row = 0; row < rowCount; row++) {
+            for (int col = 0; col < columnCount; col++) {
+                int mask = 0;
+                if (!isWallTile(col, row)) {
+                    for (int i = 0; i < MOVE_DIRECTIONS.length; i++) {
+                        Direction direction = MOVE_DIRECTIONS[i];
+                        if (!isWallTile(col + direction.dx, row + direction.dy)) {
+                            mask |= 1 << i;
+                        }
+                    }
+                }
+                exitMasks[row * columnCount + col] = (byte) mask;
+            }
+        }
     }
 
-    private void validateMap(String[] map) {
-        if (map.length != ROW_COUNT) {
-            throw new IllegalStateException("Invalid level: expected " + ROW_COUNT + " rows, found " + map.length);
+    private void resize(int columns, int rows) {
+        if (columns == columnCount && rows == rowCount) {
+            return;
         }
-        for (int row = 0; row < ROW_COUNT; row++) {
-            if (map[row].length() != COLUMN_COUNT) {
-                throw new IllegalStateException(
-                        "Invalid level row " + row + ": expected " + COLUMN_COUNT + " cols, found " + map[row].length());
+        if ((long) columns * rows > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Level " + (levelIndex + 1) + " is too large: " + columns + "x" + rows);
+        }
+        columnCount = columns;
+        rowCount = rows;
+        wallTiles = new boolean[columns * rows];
+        exitMasks = new byte[columns * rows];
+    }
+
+    /** The open tile nearest (by Manhattan distance) to the ghost type's home corner. */
+    private int homeTile(GhostType type) {
+        int cornerCol = type.scattersLeft ? 0 : columnCount - 1;
+        int cornerRow = type.scattersUp ? 0 : rowCount - 1;
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int tile = 0; tile < exitMasks.length; tile++) {
+            if (exitMasks[tile] == 0) {
+                continue;
             }
+            int distance = Math.abs(tile % columnCount - cornerCol) + Math.abs(tile / columnCount - cornerRow);
+            if (distance < bestDistance) {
+                best = tile;
+                bestDistance = distance;
+            }
+        }
+        if (best < 0) {
+            throw new IllegalStateException("Level " + (levelIndex + 1) + " has no open tiles");
+        }
+        return best;
+    }
+
+    /** Benchmark hook: removes pellets (power pellets last) until only {@code keep} remain. */
+    void removePellets(int keep) {
+        for (int tile = pelletTiles.nextSetBit(0); tile >= 0 && pelletsRemaining > keep; tile = pelletTiles.nextSetBit(tile + 1)) {
+            pelletTiles.clear(tile);
+            pelletsRemaining--;
+        }
+        for (int tile = powerPelletTiles.nextSetBit(0); tile >= 0 && pelletsRemaining > keep; tile = powerPelletTiles.nextSetBit(tile + 1)) {
+            powerPelletTiles.clear(tile);
+            pelletsRemaining--;
         }
     }
 
     private void resetRound() {
         pacman.reset();
         pacman.setDirection(Direction.RIGHT);
-        pacman.updateSprite();
+        ghostModeTicks = 0;
 
-        for (Ghost ghost : ghosts) {
-            ghost.reset();
-            ghost.setDirection(pickGhostDirection(ghost));
-            ghost.setFrightened(powerTicksRemaining > 0);
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            ghosts.reset(ghost);
+            ghosts.setFrightened(ghost, powerTicksRemaining > 0);
+            ghosts.setDirection(ghost, pickGhostDirection(ghost));
         }
     }
 
     private void movePacman() {
-        if (isAlignedToTile(pacman) && canMove(pacman, requestedDirection)) {
+        if (isAlignedToTile(pacman.x, pacman.y) && canMove(pacman, requestedDirection)) {
             pacman.setDirection(requestedDirection);
-            pacman.updateSprite();
         }
 
         if (!canMove(pacman, pacman.getDirection())) {
@@ -392,49 +618,86 @@ public class PacManGame {
         wrapHorizontally(pacman);
     }
 
-    private void eatPellets() {
-        Iterator<Pellet> iterator = pellets.iterator();
-        while (iterator.hasNext()) {
-            Pellet pellet = iterator.next();
-            if (intersects(pacman, pellet)) {
-                iterator.remove();
-                if (pellet.power) {
-                    score += 50;
-                    powerTicksRemaining = powerDurationTicks;
-                    setGhostsFrightened(true);
-                } else {
-                    score += 10;
-                }
+    // Package-private so the JMH benchmarks under bench/ can measure it directly.
+    void eatPellets() {
+        int firstCol = Math.max(0, Math.floorDiv(pacman.x, TILE_SIZE));
+        int lastCol = Math.min(columnCount - 1, Math.floorDiv(pacman.x + pacman.width - 1, TILE_SIZE));
+        int firstRow = Math.max(0, Math.floorDiv(pacman.y, TILE_SIZE));
+        int lastRow = Math.min(rowCount - 1, Math.floorDiv(pacman.y + pacman.height - 1, TILE_SIZE));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                eatPelletAt(col, row);
             }
         }
     }
 
-    private void moveGhosts() {
-        for (Ghost ghost : ghosts) {
-            if (isAlignedToTile(ghost) || !canMove(ghost, ghost.getDirection())) {
-                ghost.setDirection(pickGhostDirection(ghost));
-            }
+    private void eatPelletAt(int col, int row) {
+        int tile = row * columnCount + col;
+        int x = col * TILE_SIZE;
+        int y = row * TILE_SIZE;
+
+        if (powerPelletTiles.get(tile)) {
+            // Power pellets fill their whole tile, so any overlap counts.
+            powerPelletTiles.clear(tile);
+            pelletsRemaining--;
+            dirtyRegions.add(x, y, TILE_SIZE, TILE_SIZE);
+            score += 50;
+            powerTicksRemaining = powerDurationTicks;
+            setGhostsFrightened(true);
+            emit(GameEvent.POWER_PELLET_EATEN, tile);
+        } else if (pelletTiles.get(tile) && rectanglesIntersect(
+                pacman.x, pacman.y, pacman.width, pacman.height,
+                x + PELLET_OFFSET, y + PELLET_OFFSET, PELLET_SIZE, PELLET_SIZE)) {
+            pelletTiles.clear(tile);
+            pelletsRemaining--;
+            dirtyRegions.add(x, y, TILE_SIZE, TILE_SIZE);
+            score += 10;
+            emit(GameEvent.PELLET_EATEN, tile);
+        }
+    }
 
-            if (!canMove(ghost, ghost.getDirection())) {
-                continue;
+    private void moveGhosts() {
+        // Phase one plans every ghost from the ghosts as they stand now, possibly in parallel; phase two commits the
+        // plans in ghost order, drawing random exits in the same order as a serial update would.
+        int count = ghosts.size();
+        ghostMoves.planAll(count, MIN_PARALLEL_GHOSTS, ghostPlanner);
+
+        int boardWidth = getBoardWidth();
+        for (int ghost = 0; ghost < count; ghost++) {
+            if (ghostMoves.getKind(ghost) == GhostMoves.KEEP) {
+                if (!ghostMoves.isMoving(ghost)) {
+                    continue;
+                }
+            } else {
+                ghosts.setDirection(ghost, resolveTurn(ghost));
             }
+            ghosts.move(ghost, boardWidth);
+        }
+    }
 
-            ghost.move();
-            wrapHorizontally(ghost);
+    /** Plans one ghost's move; reads shared state only and writes only the ghost's plan slot. */
+    private void planGhost(int ghost) {
+        int x = ghosts.getX(ghost);
+        int y = ghosts.getY(ghost);
+        if (isAlignedToTile(x, y) || !canMove(x, y, Ghosts.SIZE, Ghosts.SIZE, ghosts.getDirection(ghost))) {
+            planTurn(ghost);
+        } else {
+            ghostMoves.keep(ghost, true);
         }
     }
 
     private void handleGhostCollisions() {
-        for (Ghost ghost : ghosts) {
-            if (!intersects(pacman, ghost)) {
-                continue;
-            }
-
+        // Broad phase: only ghosts bucketed in the tiles around Pac-Man, in ghost order as before.
+        int hits = ghosts.findOverlapping(pacman.x, pacman.y, pacman.width, pacman.height);
+        for (int i = 0; i < hits; i++) {
+            int ghost = ghosts.hit(i);
             if (powerTicksRemaining > 0) {
                 score += 200;
-                ghost.reset();
-                ghost.setDirection(pickGhostDirection(ghost));
-                ghost.setFrightened(true);
+                ghosts.reset(ghost);
+                ghosts.setDirection(ghost, pickGhostDirection(ghost));
+                ghosts.setFrightened(ghost, true);
+                emit(GameEvent.GHOST_EATEN, ghost);
                 continue;
             }
 
@@ -445,17 +708,19 @@ public class PacManGame {
             if (lives < 0) {
                 lives = 0;
             }
+            emit(GameEvent.PACMAN_DIED, lives);
             startDeathAnimation();
             return;
         }
     }
 
     private void advanceLevelIfComplete() {
-        if (!pellets.isEmpty()) {
+        if (pelletsRemaining > 0) {
             return;
         }
 
-        if (levelIndex < levelMaps.length - 1) {
+        emit(GameEvent.LEVEL_CLEARED, levelIndex);
+        if (levelIndex < levels.getLevelCount() - 1) {
             requestedDirection = Direction.RIGHT;
             powerTicksRemaining = 0;
             setGhostsFrightened(false);
@@ -469,16 +734,24 @@ public class PacManGame {
 
     private void updatePowerMode() {
         if (powerTicksRemaining <= 0) {
+            ghostModeTicks++;
             return;
         }
 
         powerTicksRemaining--;
         if (powerTicksRemaining == 0) {
             setGhostsFrightened(false);
+            emit(GameEvent.POWER_EXPIRED, 0);
+        }
+    }
+
+    private void emit(GameEvent event, int value) {
+        if (eventListener != null) {
+            eventListener.onEvent(tickCount, event, value);
         }
     }
 
-    private void startDeathAnimation() {
+    void startDeathAnimation() {
         // Freeze gameplay and play the classic "mouth closes then disappears" animation.
         deathDirection = pacman.getDirection();
         if (deathDirection == null || deathDirection == Direction.NONE) {
@@ -504,175 +777,244 @@ public class PacManGame {
         resetRound();
     }
 
-    private void drawDeathAnimation(Graphics g) {
-        if (deathTicksRemaining <= 0) {
-            return;
+    private void setGhostsFrightened(boolean frightened) {
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            if (ghosts.isFrightened(ghost) != frightened) {
+                dirtyRegions.add(ghosts.getX(ghost), ghosts.getY(ghost), Ghosts.SIZE, Ghosts.SIZE);
+            }
+            ghosts.setFrightened(ghost, frightened);
         }
+    }
 
-        int elapsedTicks = deathDurationTicks - deathTicksRemaining;
-        float mouthOpenDegrees = 90f;
-        float scale = 1f;
+    private void rememberActorPositions() {
+        pacman.rememberPosition();
+        ghosts.rememberPositions();
+    }
 
-        if (elapsedTicks < deathMouthCloseTicks) {
-            float t = elapsedTicks / (float) deathMouthCloseTicks;
-            mouthOpenDegrees = mouthOpenDegrees * (1f - t);
-        } else {
-            mouthOpenDegrees = 0f;
-            int shrinkElapsed = elapsedTicks - deathMouthCloseTicks;
-            int shrinkTicks = Math.max(1, deathDurationTicks - deathMouthCloseTicks);
-            float t = shrinkElapsed / (float) shrinkTicks;
-            scale = Math.max(0f, 1f - t);
+    private void markMovedActorsDirty() {
+        // The death animation redraws Pac-Man every tick without moving him.
+        if (gameState == GameState.DYING) {
+            dirtyRegions.add(pacman.x, pacman.y, pacman.width, pacman.height);
+        }
+        markMoveDirty(pacman.previousX, pacman.previousY, pacman.x, pacman.y, pacman.width, pacman.height);
+        // Once the regions have overflowed (or nobody is clearing them) the rest of the walk would change nothing.
+        for (int ghost = 0; ghost < ghosts.size() && !dirtyRegions.isAllDirty(); ghost++) {
+            markMoveDirty(ghosts.getPreviousX(ghost), ghosts.getPreviousY(ghost),
+                    ghosts.getX(ghost), ghosts.getY(ghost), Ghosts.SIZE, Ghosts.SIZE);
         }
+    }
 
-        int size = Math.round(TILE_SIZE * scale);
-        if (size <= 0) {
+    private void markMoveDirty(int previousX, int previousY, int x, int y, int width, int height) {
+        int dx = x - previousX;
+        int dy = y - previousY;
+        if (dx == 0 && dy == 0) {
             return;
         }
-
-        int centerX = pacman.x + (pacman.width / 2);
-        int centerY = pacman.y + (pacman.height / 2);
-        int drawX = centerX - (size / 2);
-        int drawY = centerY - (size / 2);
-
-        int mouthAngle = Math.max(0, Math.min(359, Math.round(mouthOpenDegrees)));
-        int startAngle = directionToAngle(deathDirection) + (mouthAngle / 2);
-        int extent = 360 - mouthAngle;
-
-        Graphics2D g2 = (Graphics2D) g.create();
-        try {
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.setColor(Color.YELLOW);
-            g2.fillArc(drawX, drawY, size, size, startAngle, extent);
-        } finally {
-            g2.dispose();
+        if (Math.abs(dx) > width || Math.abs(dy) > height) {
+            // Wrapped or respawned: the two positions are far apart, so keep them as separate regions.
+            dirtyRegions.add(previousX, previousY, width, height);
+            dirtyRegions.add(x, y, width, height);
+            return;
         }
+        dirtyRegions.add(Math.min(x, previousX), Math.min(y, previousY), width + Math.abs(dx), height + Math.abs(dy));
+    }
+
+    Direction pickGhostDirection(int ghost) {
+        planTurn(ghost);
+        return ghostMoves.getKind(ghost) == GhostMoves.KEEP ? ghosts.getDirection(ghost) : resolveTurn(ghost);
     }
 
-    private int directionToAngle(Direction direction) {
-        if (direction == Direction.UP) {
-            return 90;
+    /** Plans how the ghost picks its next direction; everything but the random draw and the distance lookup. */
+    private void planTurn(int ghost) {
+        int x = ghosts.getX(ghost);
+        int y = ghosts.getY(ghost);
+        int exits = exitMask(x, y, Ghosts.SIZE, Ghosts.SIZE);
+        if (exits == 0) {
+            ghostMoves.keep(ghost, false);
+            return;
         }
-        if (direction == Direction.DOWN) {
-            return 270;
+
+        if (Integer.bitCount(exits) > 1) {
+            exits &= ~directionBit(ghosts.getDirection(ghost).opposite());
         }
-        if (direction == Direction.LEFT) {
-            return 180;
+
+        if (!ghosts.isFrightened(ghost) && isOnTileGrid(x, y, Ghosts.SIZE, Ghosts.SIZE)) {
+            int target = ghostBrains[ghosts.getType(ghost).ordinal()].target(ghostView, ghost);
+            if (target != GhostBrain.WANDER) {
+                ghostMoves.steer(ghost, target, exits);
+                return;
+            }
         }
-        return 0; // RIGHT
+        ghostMoves.wander(ghost, exits);
     }
 
-    private void setGhostsFrightened(boolean frightened) {
-        for (Ghost ghost : ghosts) {
-            ghost.setFrightened(frightened);
+    /** The direction a planned {@link GhostMoves#STEER} or {@link GhostMoves#WANDER} turn settles on. */
+    private Direction resolveTurn(int ghost) {
+        int exits = ghostMoves.getExits(ghost);
+        if (ghostMoves.getKind(ghost) == GhostMoves.STEER) {
+            int tile = tileIndex(ghosts.getX(ghost), ghosts.getY(ghost));
+            Direction closest = closestExit(tile, exits, targetFields.get(ghostMoves.getTarget(ghost)));
+            if (closest != null) {
+                return closest;
+            }
         }
+
+        // Frightened and wandering ghosts, and ghosts whose target is unreachable, take a random exit. Every random
+        // turn makes exactly one draw, even with a single exit, so a seed and its inputs always replay the same game.
+        Direction[] candidates = EXIT_DIRECTIONS[exits];
+        return candidates[random.nextInt(candidates.length)];
     }
 
-    private Direction pickGhostDirection(Ghost ghost) {
-        List<Direction> possibleDirections = new ArrayList<>();
-        for (Direction direction : MOVE_DIRECTIONS) {
-            if (canMove(ghost, direction)) {
-                possibleDirections.add(direction);
+    /** The exit whose neighbouring tile is closest to the field's target; ties go to the earlier direction. */
+    private static Direction closestExit(int tile, int exits, DistanceField field) {
+        Direction closest = null;
+        int closestDistance = DistanceField.UNREACHABLE;
+        for (int i = 0; i < MOVE_DIRECTIONS.length; i++) {
+            if ((exits & (1 << i)) == 0) {
+                continue;
+            }
+            int distance = field.distanceTo(field.neighbour(tile, MOVE_DIRECTIONS[i]));
+            if (distance < closestDistance) {
+                closest = MOVE_DIRECTIONS[i];
+                closestDistance = distance;
             }
         }
+        return closest;
+    }
 
-        if (possibleDirections.isEmpty()) {
-            return ghost.getDirection();
-        }
+    /** True while non-frightened ghosts head for their home corners rather than for Pac-Man. */
+    public boolean isScatterMode() {
+        return ghostModeTicks % (scatterDurationTicks + chaseDurationTicks) < scatterDurationTicks;
+    }
 
-        if (possibleDirections.size() > 1) {
-            possibleDirections.remove(ghost.getDirection().opposite());
-        }
+    /** The tile under Pac-Man's centre. */
+    int pacmanTile() {
+        return centreTile(pacman.x, pacman.y, pacman.width, pacman.height);
+    }
 
-        if (possibleDirections.isEmpty()) {
-            return ghost.getDirection().opposite();
-        }
+    int ghostTile(int ghost) {
+        return centreTile(ghosts.getX(ghost), ghosts.getY(ghost), Ghosts.SIZE, Ghosts.SIZE);
+    }
 
-        return possibleDirections.get(random.nextInt(possibleDirections.size()));
+    private int centreTile(int x, int y, int width, int height) {
+        int col = Math.floorMod((x + width / 2) / TILE_SIZE, columnCount);
+        int row = Math.min(rowCount - 1, Math.max(0, (y + height / 2) / TILE_SIZE));
+        return row * columnCount + col;
     }
 
-    private boolean canMove(Actor actor, Direction direction) {
+    int homeTileOf(GhostType type) {
+        return homeTiles[type.ordinal()];
+    }
+
+    int exitMaskAt(int tile) {
+        return exitMasks[tile];
+    }
+
+    boolean canMove(Actor actor, Direction direction) {
+        return canMove(actor.x, actor.y, actor.width, actor.height, direction);
+    }
+
+    private boolean canMove(int x, int y, int width, int height, Direction direction) {
         if (direction == null || direction == Direction.NONE) {
             return false;
         }
+        if (isOnTileGrid(x, y, width, height)) {
+            return (exitMasks[tileIndex(x, y)] & directionBit(direction)) != 0;
+        }
+
+        int nextX = x + (direction.dx * SPEED);
+        int nextY = y + (direction.dy * SPEED);
 
-        int nextX = actor.x + (direction.dx * SPEED);
-        int nextY = actor.y + (direction.dy * SPEED);
+        return !overlapsWall(nextX, nextY, width, height);
+    }
 
-        for (Wall wall : walls) {
-            if (rectanglesIntersect(nextX, nextY, actor.width, actor.height, wall.x, wall.y, wall.width, wall.height)) {
-                return false;
+    private int exitMask(int x, int y, int width, int height) {
+        if (isOnTileGrid(x, y, width, height)) {
+            return exitMasks[tileIndex(x, y)];
+        }
+        int mask = 0;
+        for (int i = 0; i < MOVE_DIRECTIONS.length; i++) {
+            if (canMove(x, y, width, height, MOVE_DIRECTIONS[i])) {
+                mask |= 1 << i;
             }
         }
+        return mask;
+    }
 
-        return true;
+    /** True when the rectangle exactly covers one on-board tile, so that tile's exit mask answers canMove. */
+    private boolean isOnTileGrid(int x, int y, int width, int height) {
+        return width == TILE_SIZE && height == TILE_SIZE && isAlignedToTile(x, y)
+                && x >= 0 && x < getBoardWidth() && y >= 0 && y < getBoardHeight();
     }
 
-    private boolean isAlignedToTile(Actor actor) {
-        return actor.x % TILE_SIZE == 0 && actor.y % TILE_SIZE == 0;
+    private int tileIndex(int x, int y) {
+        return (y / TILE_SIZE) * columnCount + (x / TILE_SIZE);
     }
 
-    private void wrapHorizontally(Actor actor) {
-        if (actor.x < 0) {
-            actor.x = BOARD_WIDTH - TILE_SIZE;
-        } else if (actor.x > BOARD_WIDTH - TILE_SIZE) {
-            actor.x = 0;
-        }
+    static int directionBit(Direction direction) {
+        // NONE has no bit; MOVE_DIRECTIONS matches the first four enum constants.
+        return direction == Direction.NONE ? 0 : 1 << direction.ordinal();
     }
 
-    private void drawWalls(Graphics g) {
-        for (Wall wall : walls) {
-            wall.draw(g);
+    private boolean overlapsWall(int x, int y, int width, int height) {
+        int firstCol = Math.floorDiv(x, TILE_SIZE);
+        int lastCol = Math.floorDiv(x + width - 1, TILE_SIZE);
+        int firstRow = Math.floorDiv(y, TILE_SIZE);
+        int lastRow = Math.floorDiv(y + height - 1, TILE_SIZE);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (isWallTile(col, row)) {
+                    return true;
+                }
+            }
         }
+        return false;
     }
 
-    private void drawPellets(Graphics g) {
-        g.setColor(Color.WHITE);
-        for (Pellet pellet : pellets) {
-            pellet.draw(g);
+    private boolean isWallTile(int col, int row) {
+        // Off-board tiles are open so actors can slide through the horizontal tunnels.
+        if (col < 0 || col >= columnCount || row < 0 || row >= rowCount) {
+            return false;
         }
+        return wallTiles[row * columnCount + col];
     }
 
-    private void drawHud(Graphics g) {
-        g.setFont(new Font("Arial", Font.BOLD, 18));
-        g.setColor(Color.WHITE);
-
-        g.drawString("Score: " + score, 10, 20);
-
-        String levelText = "Level: " + (levelIndex + 1) + "/" + levelMaps.length;
-        FontMetrics fontMetrics = g.getFontMetrics();
-        g.drawString(levelText, (BOARD_WIDTH - fontMetrics.stringWidth(levelText)) / 2, 20);
-
-        String livesText = "Lives: " + lives;
-        g.drawString(livesText, BOARD_WIDTH - fontMetrics.stringWidth(livesText) - 10, 20);
+    private static boolean isAlignedToTile(int x, int y) {
+        return x % TILE_SIZE == 0 && y % TILE_SIZE == 0;
     }
 
-    private void drawOverlay(Graphics g) {
-        if (gameState == GameState.PAUSED) {
-            drawCenteredText(g, "Paused (P to resume)");
-        } else if (gameState == GameState.GAME_OVER) {
-            drawCenteredText(g, "Game Over (Enter to restart)");
-        } else if (gameState == GameState.WIN) {
-            drawCenteredText(g, "You Win! (Enter to restart)");
+    private void wrapHorizontally(Actor actor) {
+        if (actor.x < 0) {
+            actor.x = getBoardWidth() - TILE_SIZE;
+        } else if (actor.x > getBoardWidth() - TILE_SIZE) {
+            actor.x = 0;
         }
     }
 
-    private void drawCenteredText(Graphics g, String text) {
-        g.setFont(new Font("Arial", Font.BOLD, 28));
-        FontMetrics fontMetrics = g.getFontMetrics();
-        int textX = (BOARD_WIDTH - fontMetrics.stringWidth(text)) / 2;
-        int textY = (BOARD_HEIGHT - fontMetrics.getHeight()) / 2 + fontMetrics.getAscent();
-        g.drawString(text, textX, textY);
+    private boolean rectanglesIntersect(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx + bw && ax + aw > bx && ay < by + bh && ay + ah > by;
     }
 
-    private boolean intersects(Entity a, Entity b) {
-        return rectanglesIntersect(a.x, a.y, a.width, a.height, b.x, b.y, b.width, b.height);
+    public interface InputListener {
+        /** Called with the current tick count, before the game applies the input to the upcoming tick. */
+        void onInput(long tick, GameInput input);
     }
 
-    private boolean rectanglesIntersect(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
-        return ax < bx + bw && ax + aw > bx && ay < by + bh && ay + ah > by;
+    public interface EventListener {
+        /** Called on the ticking thread as {@code event} happens during tick number {@code tick}; must not block. */
+        void onEvent(long tick, GameEvent event, int value);
     }
 
-    private static abstract class Entity {
+    public interface PhaseListener {
+        /** Checked once per tick; while false the game does not time its phases at all. */
+        boolean isEnabled();
+
+        /** Called on the ticking thread after each {@link TickPhase} of a running tick. */
+        void phaseCompleted(TickPhase phase, long tick, long durationNanos, int ghostCount, int pelletsRemaining);
+    }
+
+    public static abstract class Entity {
         int x;
         int y;
         final int width;
@@ -685,18 +1027,50 @@ public class PacManGame {
             this.height = height;
         }
 
-        abstract void draw(Graphics g);
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
     }
 
-    private static abstract class Actor extends Entity {
+    public static abstract class Actor extends Entity {
         final int startX;
         final int startY;
+        int previousX;
+        int previousY;
         private Direction direction = Direction.RIGHT;
 
         Actor(int x, int y, int width, int height) {
             super(x, y, width, height);
             this.startX = x;
             this.startY = y;
+            this.previousX = x;
+            this.previousY = y;
+        }
+
+        /** Position at the start of the last tick; renderers interpolate from here to the current position. */
+        public int getPreviousX() {
+            return previousX;
+        }
+
+        public int getPreviousY() {
+            return previousY;
+        }
+
+        void rememberPosition() {
+            this.previousX = x;
+            this.previousY = y;
         }
 
         void reset() {
@@ -710,7 +1084,7 @@ public class PacManGame {
             }
         }
 
-        Direction getDirection() {
+        public Direction getDirection() {
             return direction;
         }
 
@@ -720,106 +1094,9 @@ public class PacManGame {
         }
     }
 
-    private static final class Wall extends Entity {
-        private final Image image;
-
-        Wall(int x, int y, Image image) {
+    public static final class Player extends Actor {
+        Player(int x, int y) {
             super(x, y, TILE_SIZE, TILE_SIZE);
-            this.image = image;
-        }
-
-        @Override
-        void draw(Graphics g) {
-            g.drawImage(image, x, y, width, height, null);
-        }
-    }
-
-    private static final class Pellet extends Entity {
-        final boolean power;
-        private final Image image;
-
-        static Pellet normal(int x, int y) {
-            return new Pellet(x, y, 4, 4, false, null);
-        }
-
-        static Pellet power(int x, int y, Image image) {
-            return new Pellet(x, y, TILE_SIZE, TILE_SIZE, true, image);
-        }
-
-        private Pellet(int x, int y, int width, int height, boolean power, Image image) {
-            super(x, y, width, height);
-            this.power = power;
-            this.image = image;
-        }
-
-        @Override
-        void draw(Graphics g) {
-            if (!power) {
-                g.fillRect(x, y, width, height);
-                return;
-            }
-
-            if (image != null) {
-                g.drawImage(image, x, y, width, height, null);
-            } else {
-                g.fillOval(x + 8, y + 8, 16, 16);
-            }
-        }
-    }
-
-    private static final class Player extends Actor {
-        private final Image upImage;
-        private final Image downImage;
-        private final Image leftImage;
-        private final Image rightImage;
-        private Image image;
-
-        Player(int x, int y, Image up, Image down, Image left, Image right) {
-            super(x, y, TILE_SIZE, TILE_SIZE);
-            this.upImage = Objects.requireNonNull(up, "up");
-            this.downImage = Objects.requireNonNull(down, "down");
-            this.leftImage = Objects.requireNonNull(left, "left");
-            this.rightImage = Objects.requireNonNull(right, "right");
-            this.image = right;
-        }
-
-        void updateSprite() {
-            if (getDirection() == Direction.UP) {
-                image = upImage;
-            } else if (getDirection() == Direction.DOWN) {
-                image = downImage;
-            } else if (getDirection() == Direction.LEFT) {
-                image = leftImage;
-            } else if (getDirection() == Direction.RIGHT) {
-                image = rightImage;
-            }
-        }
-
-        @Override
-        void draw(Graphics g) {
-            g.drawImage(image, x, y, width, height, null);
-        }
-    }
-
-    private static final class Ghost extends Actor {
-        private final Image baseImage;
-        private final Image frightenedImage;
-        private Image image;
-
-        Ghost(int x, int y, Image baseImage, Image frightenedImage) {
-            super(x, y, TILE_SIZE, TILE_SIZE);
-            this.baseImage = Objects.requireNonNull(baseImage, "baseImage");
-            this.frightenedImage = Objects.requireNonNull(frightenedImage, "frightenedImage");
-            this.image = baseImage;
-        }
-
-        void setFrightened(boolean frightened) {
-            image = frightened ? frightenedImage : baseImage;
-        }
-
-        @Override
-        void draw(Graphics g) {
-            g.drawImage(image, x, y, width, height, null);
         }
     }
 }
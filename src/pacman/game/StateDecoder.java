@@ -0,0 +1,174 @@
+package pacman.game;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Set;
+
+import pacman.level.Level;
+import pacman.level.LevelSource;
+
+import static pacman.game.StateFormat.*;
+
+/**
+ * Rebuilds a game from {@link StateEncoder} messages, for spectators. The result is an ordinary {@link PacManGame}
+ * that any renderer can draw; it is never ticked, only overwritten by each message. Callers that draw it on another
+ * thread must hold the same lock while applying messages and drawing.
+ */
+public final class StateDecoder {
+    private final MirroredLevels levels = new MirroredLevels();
+    private PacManGame game;
+
+    /** The mirrored game, or null until the first keyframe arrives. */
+    public PacManGame getGame() {
+        return game;
+    }
+
+    public void applyKeyframe(ByteBuffer in) {
+        int version = in.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported game state version " + version);
+        }
+        long tick = getVarint(in);
+        GameState state = getEnum(in, STATES);
+        int score = getInt(in);
+        int lives = getInt(in);
+        int levelIndex = getInt(in);
+        int levelCount = getInt(in);
+        boolean powered = in.get() != 0;
+        int deathTicksElapsed = getInt(in);
+        Direction deathDirection = getEnum(in, DIRECTIONS);
+
+        int columns = getInt(in);
+        int rows = getInt(in);
+        if ((long) columns * rows > in.remaining()) {
+            throw new IllegalStateException("Keyframe truncated: " + columns + "x" + rows + " board");
+        }
+        byte[] tiles = new byte[columns * rows];
+        in.get(tiles);
+        if (levelIndex >= levelCount) {
+            throw new IllegalStateException("Level " + (levelIndex + 1) + " of " + levelCount);
+        }
+        levels.set(levelCount, new Level(columns, rows, tiles));
+        if (game == null) {
+            game = new PacManGame(0, levels);
+        }
+        game.mirrorLevel(levelIndex);
+        game.mirrorStatus(tick, state, score, lives, powered, deathTicksElapsed, deathDirection);
+
+        PacManGame.Player pacman = game.getPacman();
+        pacman.x = (int) getSigned(in);
+        pacman.y = (int) getSigned(in);
+        pacman.previousX = (int) getSigned(in);
+        pacman.previousY = (int) getSigned(in);
+        pacman.setDirection(getEnum(in, DIRECTIONS));
+
+        Ghosts ghosts = game.getGhosts();
+        int ghostCount = getInt(in);
+        if (ghostCount != ghosts.size()) {
+            throw new IllegalStateException("Keyframe has " + ghostCount + " ghosts, its board " + ghosts.size());
+        }
+        for (int ghost = 0; ghost < ghostCount; ghost++) {
+            int x = (int) getSigned(in);
+            int y = (int) getSigned(in);
+            int previousX = (int) getSigned(in);
+            int previousY = (int) getSigned(in);
+            ghosts.place(ghost, x, y, previousX, previousY);
+            ghosts.setDirection(ghost, getEnum(in, DIRECTIONS));
+            ghosts.setFrightened(ghost, in.get() != 0);
+        }
+    }
+
+    public void applyDelta(ByteBuffer in) {
+        if (game == null) {
+            throw new IllegalStateException("Delta before the first keyframe");
+        }
+        game.mirrorTick();
+        long tick = getVarint(in);
+        int mask = in.get() & 0xFF;
+
+        int score = (mask & CHANGED_SCORE) != 0 ? getInt(in) : game.getScore();
+        int lives = (mask & CHANGED_LIVES) != 0 ? getInt(in) : game.getLives();
+        GameState state = (mask & CHANGED_STATE) != 0 ? getEnum(in, STATES) : game.getGameState();
+        boolean powered = (mask & CHANGED_POWER) != 0 ? in.get() != 0 : game.isPowerModeActive();
+        int deathTicksElapsed = game.getDeathTicksElapsed();
+        Direction deathDirection = game.getDeathDirection();
+        if ((mask & CHANGED_DEATH) != 0) {
+            deathTicksElapsed = getInt(in);
+            deathDirection = getEnum(in, DIRECTIONS);
+        }
+        game.mirrorStatus(tick, state, score, lives, powered, deathTicksElapsed, deathDirection);
+
+        if ((mask & CHANGED_PACMAN) != 0) {
+            PacManGame.Player pacman = game.getPacman();
+            pacman.x += (int) getSigned(in);
+            pacman.y += (int) getSigned(in);
+            pacman.setDirection(getEnum(in, DIRECTIONS));
+        }
+
+        if ((mask & CHANGED_GHOSTS) != 0) {
+            Ghosts ghosts = game.getGhosts();
+            int changed = getInt(in);
+            int ghost = -1;
+            for (int i = 0; i < changed; i++) {
+                ghost += getInt(in) + 1;
+                if (ghost >= ghosts.size()) {
+                    throw new IllegalStateException("Delta names ghost " + ghost + " of " + ghosts.size());
+                }
+                int flags = in.get() & 0xFF;
+                if ((flags & GHOST_MOVED) != 0) {
+                    int x = ghosts.getX(ghost) + (int) getSigned(in);
+                    int y = ghosts.getY(ghost) + (int) getSigned(in);
+                    ghosts.place(ghost, x, y);
+                }
+                if ((flags & GHOST_TURNED) != 0) {
+                    ghosts.setDirection(ghost, getEnum(in, DIRECTIONS));
+                }
+                if ((flags & GHOST_FRIGHTENED) != 0) {
+                    ghosts.setFrightened(ghost, true);
+                } else if ((flags & GHOST_CALMED) != 0) {
+                    ghosts.setFrightened(ghost, false);
+                }
+            }
+        }
+
+        if ((mask & CHANGED_PELLETS) != 0) {
+            int eaten = getInt(in);
+            int tile = -1;
+            int tileCount = game.getColumnCount() * game.getRowCount();
+            for (int i = 0; i < eaten; i++) {
+                tile += getInt(in) + 1;
+                if (tile >= tileCount) {
+                    throw new IllegalStateException("Delta names tile " + tile + " of " + tileCount);
+                }
+                game.mirrorPelletEaten(tile);
+            }
+        }
+    }
+
+    /** Serves whatever level the last keyframe carried, under the index the server is playing. */
+    private static final class MirroredLevels implements LevelSource {
+        private volatile int levelCount;
+        private volatile Level level;
+
+        void set(int levelCount, Level level) {
+            this.levelCount = levelCount;
+            this.level = level;
+        }
+
+        @Override
+        public int getLevelCount() {
+            return levelCount;
+        }
+
+        @Override
+        public Level getLevel(int index) {
+            return level;
+        }
+
+        // Keyframes carry no brain names, and a mirrored game is never ticked, so its ghosts never think.
+        @Override
+        public Set<String> getGhostBrainNames() {
+            return Collections.emptySet();
+        }
+    }
+}
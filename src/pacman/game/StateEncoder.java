@@ -0,0 +1,331 @@
+package pacman.game;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import pacman.level.Level;
+
+import static pacman.game.StateFormat.*;
+
+/**
+ * Encodes a game for spectators: a keyframe carrying the whole state, and after each tick a delta against the last
+ * message carrying only what changed (see {@link StateFormat}). Encoded messages are returned in a buffer owned by the
+ * encoder, valid until the next call. Used on the thread that ticks the game.
+ */
+public final class StateEncoder {
+    private static final int STATUS_BYTES = 8 * MAX_VARINT_BYTES;
+    private static final int ACTOR_BYTES = 4 * MAX_VARINT_BYTES + 2;
+    // A tick moves Pac-Man less than a tile, so the tiles it covered fit in a 3x3 block unless it wrapped.
+    private static final int NEARBY_TILES = 9;
+
+    private final PacManGame game;
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    // The state the last message described; deltas are encoded against it.
+    private long sentLevelLoadCount = -1;
+    private int sentScore;
+    private int sentLives;
+    private GameState sentState;
+    private boolean sentPowered;
+    private int sentDeathTicksElapsed;
+    private Direction sentDeathDirection;
+    private int sentPacmanX;
+    private int sentPacmanY;
+    private Direction sentPacmanDirection;
+    private int[] sentGhostX = new int[0];
+    private int[] sentGhostY = new int[0];
+    private byte[] sentGhostDirections = new byte[0];
+    private boolean[] sentGhostFrightened = new boolean[0];
+    private final BitSet sentPellets = new BitSet();
+    private int sentPelletsRemaining;
+    // Tiles eaten since the last message, found while encoding a delta.
+    private int[] eaten = new int[16];
+    private int eatenCount;
+
+    public StateEncoder(PacManGame game) {
+        this.game = game;
+    }
+
+    /** True when a level was (re)loaded since the last message, so the next message must be a keyframe. */
+    public boolean needsKeyframe() {
+        return game.getLevelLoadCount() != sentLevelLoadCount;
+    }
+
+    /** The whole current state. Also becomes the base of the next delta. */
+    public ByteBuffer encodeKeyframe() {
+        int columns = game.getColumnCount();
+        int rows = game.getRowCount();
+        Ghosts ghosts = game.getGhosts();
+        ensureCapacity(1 + STATUS_BYTES + 4 * MAX_VARINT_BYTES + (long) columns * rows + (ghosts.size() + 1L) * ACTOR_BYTES);
+
+        buffer.put((byte) VERSION);
+        putVarint(buffer, game.getTickCount());
+        buffer.put((byte) game.getGameState().ordinal());
+        putVarint(buffer, game.getScore());
+        putVarint(buffer, game.getLives());
+        putVarint(buffer, game.getLevelIndex());
+        putVarint(buffer, game.getLevelCount());
+        buffer.put((byte) (game.isPowerModeActive() ? 1 : 0));
+        putVarint(buffer, game.getDeathTicksElapsed());
+        buffer.put((byte) game.getDeathDirection().ordinal());
+
+        putVarint(buffer, columns);
+        putVarint(buffer, rows);
+        int tilesStart = buffer.position();
+        for (int tile = 0; tile < columns * rows; tile++) {
+            char legend = 'O';
+            if (game.isWall(tile % columns, tile / columns)) {
+                legend = 'X';
+            } else if (game.hasPellet(tile)) {
+                legend = ' ';
+            } else if (game.hasPowerPellet(tile)) {
+                legend = 'F';
+            }
+            buffer.put((byte) legend);
+        }
+        PacManGame.Player pacman = game.getPacman();
+        buffer.put(tilesStart + spawnTile(pacman.startX, pacman.startY, columns), (byte) 'P');
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            // GHOST_SPAWNS lists the spawn letters in GhostType order.
+            char spawn = Level.GHOST_SPAWNS.charAt(ghosts.getType(ghost).ordinal());
+            buffer.put(tilesStart + spawnTile(ghosts.getStartX(ghost), ghosts.getStartY(ghost), columns), (byte) spawn);
+        }
+
+        putActor(pacman.getX(), pacman.getY(), pacman.getPreviousX(), pacman.getPreviousY(), pacman.getDirection());
+        putVarint(buffer, ghosts.size());
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            putActor(ghosts.getX(ghost), ghosts.getY(ghost), ghosts.getPreviousX(ghost), ghosts.getPreviousY(ghost),
+                    ghosts.getDirection(ghost));
+            buffer.put((byte) (ghosts.isFrightened(ghost) ? 1 : 0));
+        }
+
+        rememberSentState();
+        return flip();
+    }
+
+    /** What changed since the last message. Must follow a keyframe whenever {@link #needsKeyframe()} is true. */
+    public ByteBuffer encodeDelta() {
+        if (needsKeyframe()) {
+            throw new IllegalStateException("A level was loaded; send a keyframe instead");
+        }
+        Ghosts ghosts = game.getGhosts();
+        PacManGame.Player pacman = game.getPacman();
+        ensureCapacity(STATUS_BYTES + ACTOR_BYTES + (ghosts.size() + 1L) * ACTOR_BYTES + MAX_VARINT_BYTES
+                + (long) Math.max(0, sentPelletsRemaining - game.getPelletsRemaining()) * MAX_VARINT_BYTES);
+
+        putVarint(buffer, game.getTickCount());
+        int maskPosition = buffer.position();
+        buffer.put((byte) 0);
+        int mask = 0;
+
+        if (game.getScore() != sentScore) {
+            mask |= CHANGED_SCORE;
+            putVarint(buffer, game.getScore());
+        }
+        if (game.getLives() != sentLives) {
+            mask |= CHANGED_LIVES;
+            putVarint(buffer, game.getLives());
+        }
+        if (game.getGameState() != sentState) {
+            mask |= CHANGED_STATE;
+            buffer.put((byte) game.getGameState().ordinal());
+        }
+        if (game.isPowerModeActive() != sentPowered) {
+            mask |= CHANGED_POWER;
+            buffer.put((byte) (game.isPowerModeActive() ? 1 : 0));
+        }
+        if (game.getDeathTicksElapsed() != sentDeathTicksElapsed || game.getDeathDirection() != sentDeathDirection) {
+            mask |= CHANGED_DEATH;
+            putVarint(buffer, game.getDeathTicksElapsed());
+            buffer.put((byte) game.getDeathDirection().ordinal());
+        }
+        if (pacman.getX() != sentPacmanX || pacman.getY() != sentPacmanY || pacman.getDirection() != sentPacmanDirection) {
+            mask |= CHANGED_PACMAN;
+            putSigned(buffer, pacman.getX() - sentPacmanX);
+            putSigned(buffer, pacman.getY() - sentPacmanY);
+            buffer.put((byte) pacman.getDirection().ordinal());
+        }
+        if (putGhostChanges(ghosts)) {
+            mask |= CHANGED_GHOSTS;
+        }
+        if (game.getPelletsRemaining() != sentPelletsRemaining) {
+            mask |= CHANGED_PELLETS;
+            putEatenPellets();
+        }
+
+        buffer.put(maskPosition, (byte) mask);
+        rememberSentState();
+        return flip();
+    }
+
+    private boolean putGhostChanges(Ghosts ghosts) {
+        int changed = 0;
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            if (ghostChanges(ghosts, ghost) != 0) {
+                changed++;
+            }
+        }
+        if (changed == 0) {
+            return false;
+        }
+
+        putVarint(buffer, changed);
+        int previous = -1;
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            int flags = ghostChanges(ghosts, ghost);
+            if (flags == 0) {
+                continue;
+            }
+            putVarint(buffer, ghost - previous - 1);
+            buffer.put((byte) flags);
+            if ((flags & GHOST_MOVED) != 0) {
+                putSigned(buffer, ghosts.getX(ghost) - sentGhostX[ghost]);
+                putSigned(buffer, ghosts.getY(ghost) - sentGhostY[ghost]);
+            }
+            if ((flags & GHOST_TURNED) != 0) {
+                buffer.put((byte) ghosts.getDirection(ghost).ordinal());
+            }
+            previous = ghost;
+        }
+        return true;
+    }
+
+    private int ghostChanges(Ghosts ghosts, int ghost) {
+        int flags = 0;
+        if (ghosts.getX(ghost) != sentGhostX[ghost] || ghosts.getY(ghost) != sentGhostY[ghost]) {
+            flags |= GHOST_MOVED;
+        }
+        if (ghosts.getDirection(ghost).ordinal() != sentGhostDirections[ghost]) {
+            flags |= GHOST_TURNED;
+        }
+        if (ghosts.isFrightened(ghost) != sentGhostFrightened[ghost]) {
+            flags |= ghosts.isFrightened(ghost) ? GHOST_FRIGHTENED : GHOST_CALMED;
+        }
+        return flags;
+    }
+
+    private void putEatenPellets() {
+        findEatenPellets();
+        putVarint(buffer, eatenCount);
+        int previous = -1;
+        for (int i = 0; i < eatenCount; i++) {
+            putVarint(buffer, eaten[i] - previous - 1);
+            previous = eaten[i];
+        }
+    }
+
+    /** Collects the tiles whose pellets were eaten since the last message into {@link #eaten}, ascending. */
+    private void findEatenPellets() {
+        eatenCount = 0;
+        int missing = sentPelletsRemaining - game.getPelletsRemaining();
+        // Pellets only disappear under Pac-Man, so look at the tiles it covered during the tick first.
+        PacManGame.Player pacman = game.getPacman();
+        int left = Math.min(pacman.getX(), pacman.getPreviousX());
+        int top = Math.min(pacman.getY(), pacman.getPreviousY());
+        int right = Math.max(pacman.getX(), pacman.getPreviousX()) + pacman.getWidth() - 1;
+        int bottom = Math.max(pacman.getY(), pacman.getPreviousY()) + pacman.getHeight() - 1;
+        int columns = game.getColumnCount();
+        int firstCol = Math.max(0, Math.floorDiv(left, PacManGame.TILE_SIZE));
+        int lastCol = Math.min(columns - 1, Math.floorDiv(right, PacManGame.TILE_SIZE));
+        int firstRow = Math.max(0, Math.floorDiv(top, PacManGame.TILE_SIZE));
+        int lastRow = Math.min(game.getRowCount() - 1, Math.floorDiv(bottom, PacManGame.TILE_SIZE));
+        if ((long) (lastCol - firstCol + 1) * (lastRow - firstRow + 1) <= NEARBY_TILES) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    collectIfEaten(row * columns + col);
+                }
+            }
+            if (eatenCount == missing) {
+                return;
+            }
+        }
+
+        // Pac-Man wrapped or something else removed pellets: compare every pellet last sent.
+        eatenCount = 0;
+        for (int tile = sentPellets.nextSetBit(0); tile >= 0; tile = sentPellets.nextSetBit(tile + 1)) {
+            collectIfEaten(tile);
+        }
+    }
+
+    private void collectIfEaten(int tile) {
+        if (!sentPellets.get(tile) || game.hasPellet(tile) || game.hasPowerPellet(tile)) {
+            return;
+        }
+        if (eatenCount == eaten.length) {
+            eaten = Arrays.copyOf(eaten, eaten.length * 2);
+        }
+        eaten[eatenCount++] = tile;
+    }
+
+    private void putActor(int x, int y, int previousX, int previousY, Direction direction) {
+        putSigned(buffer, x);
+        putSigned(buffer, y);
+        putSigned(buffer, previousX);
+        putSigned(buffer, previousY);
+        buffer.put((byte) direction.ordinal());
+    }
+
+    private static int spawnTile(int x, int y, int columns) {
+        return (y / PacManGame.TILE_SIZE) * columns + x / PacManGame.TILE_SIZE;
+    }
+
+    private void rememberSentState() {
+        PacManGame.Player pacman = game.getPacman();
+        Ghosts ghosts = game.getGhosts();
+        if (game.getLevelLoadCount() != sentLevelLoadCount) {
+            sentLevelLoadCount = game.getLevelLoadCount();
+            sentPellets.clear();
+            for (int tile = game.nextPelletTile(0); tile >= 0; tile = game.nextPelletTile(tile + 1)) {
+                sentPellets.set(tile);
+            }
+            for (int tile = game.nextPowerPelletTile(0); tile >= 0; tile = game.nextPowerPelletTile(tile + 1)) {
+                sentPellets.set(tile);
+            }
+        } else {
+            for (int i = 0; i < eatenCount; i++) {
+                sentPellets.clear(eaten[i]);
+            }
+        }
+        eatenCount = 0;
+        sentPelletsRemaining = game.getPelletsRemaining();
+        sentScore = game.getScore();
+        sentLives = game.getLives();
+        sentState = game.getGameState();
+        sentPowered = game.isPowerModeActive();
+        sentDeathTicksElapsed = game.getDeathTicksElapsed();
+        sentDeathDirection = game.getDeathDirection();
+        sentPacmanX = pacman.getX();
+        sentPacmanY = pacman.getY();
+        sentPacmanDirection = pacman.getDirection();
+
+        int count = ghosts.size();
+        if (sentGhostX.length < count) {
+            sentGhostX = Arrays.copyOf(sentGhostX, count);
+            sentGhostY = Arrays.copyOf(sentGhostY, count);
+            sentGhostDirections = Arrays.copyOf(sentGhostDirections, count);
+            sentGhostFrightened = Arrays.copyOf(sentGhostFrightened, count);
+        }
+        for (int ghost = 0; ghost < count; ghost++) {
+            sentGhostX[ghost] = ghosts.getX(ghost);
+            sentGhostY[ghost] = ghosts.getY(ghost);
+            sentGhostDirections[ghost] = (byte) ghosts.getDirection(ghost).ordinal();
+            sentGhostFrightened[ghost] = ghosts.isFrightened(ghost);
+        }
+    }
+
+    private void ensureCapacity(long bytes) {
+        if (bytes > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Game state too large to encode: " + bytes + " bytes");
+        }
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate((int) Math.max(bytes, 2L * buffer.capacity()));
+        }
+        buffer.clear();
+    }
+
+    private ByteBuffer flip() {
+        buffer.flip();
+        return buffer;
+    }
+}
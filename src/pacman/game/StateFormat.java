@@ -0,0 +1,88 @@
+package pacman.game;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format shared by {@link StateEncoder} and {@link StateDecoder}. Integers are unsigned LEB128 varints;
+ * signed values (positions and position changes) are zigzag-encoded first, so small moves take one byte.
+ *
+ * Keyframe: format version, tick, state, score, lives, level index, level count, power flag, death ticks elapsed,
+ * death direction, columns, rows, {@code columns * rows} tile bytes in the {@link pacman.level.Level} legend (current
+ * pellets, Pac-Man and ghost spawns), then Pac-Man and every ghost as x, y, previous x, previous y, direction and
+ * (ghosts only) a frightened byte.
+ *
+ * Delta: tick, a change mask, then in mask order the new score, lives, state, power flag, death ticks elapsed and
+ * direction; Pac-Man's position change and direction; the changed ghosts, each as an index gap, a flag byte and the
+ * changes it announces; and the tiles of eaten pellets as ascending gaps.
+ */
+final class StateFormat {
+    static final int VERSION = 1;
+
+    static final int CHANGED_SCORE = 1;
+    static final int CHANGED_LIVES = 1 << 1;
+    static final int CHANGED_STATE = 1 << 2;
+    static final int CHANGED_POWER = 1 << 3;
+    static final int CHANGED_DEATH = 1 << 4;
+    static final int CHANGED_PACMAN = 1 << 5;
+    static final int CHANGED_GHOSTS = 1 << 6;
+    static final int CHANGED_PELLETS = 1 << 7;
+
+    static final int GHOST_MOVED = 1;
+    static final int GHOST_TURNED = 1 << 1;
+    static final int GHOST_FRIGHTENED = 1 << 2;
+    static final int GHOST_CALMED = 1 << 3;
+
+    static final Direction[] DIRECTIONS = Direction.values();
+    static final GameState[] STATES = GameState.values();
+
+    /** Upper bound on the bytes one varint takes. */
+    static final int MAX_VARINT_BYTES = 10;
+
+    private StateFormat() {
+    }
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static void putSigned(ByteBuffer out, long value) {
+        putVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static int getInt(ByteBuffer in) {
+        long value = getVarint(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    static long getSigned(ByteBuffer in) {
+        long value = getVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static <T> T getEnum(ByteBuffer in, T[] values) {
+        int ordinal = in.get() & 0xFF;
+        if (ordinal >= values.length) {
+            throw new IllegalStateException("Unknown " + values[0].getClass().getSimpleName() + " " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
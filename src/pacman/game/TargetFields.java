@@ -0,0 +1,63 @@
+package pacman.game;
+
+import java.util.Arrays;
+
+/**
+ * The distance fields ghosts steer by, one per target tile, in a small cache shared by every ghost. Brains that agree
+ * on a target (every chaser, every ghost of a colour heading home) share one lazily expanded field, and the number of
+ * fields, and so the search work per tick, stays bounded however many ghosts or brains there are. The least recently
+ * used field is retargeted when a new target needs one.
+ */
+final class TargetFields {
+    static final int CAPACITY = 8;
+
+    private final DistanceField[] fields = new DistanceField[CAPACITY];
+    private final long[] lastUsed = new long[CAPACITY];
+    private long uses;
+    private int columns;
+    private int rows;
+    private byte[] exitMasks;
+
+    /** Forgets every target; call after the exit masks change. Fields are kept while the board size is unchanged. */
+    void reset(int columns, int rows, byte[] exitMasks) {
+        if (exitMasks != this.exitMasks) {
+            // Fields keep a reference to the exit masks, so a new array means new fields.
+            Arrays.fill(fields, null);
+            this.columns = columns;
+            this.rows = rows;
+            this.exitMasks = exitMasks;
+            return;
+        }
+        for (DistanceField field : fields) {
+            if (field != null) {
+                field.forget();
+            }
+        }
+    }
+
+    /** The field measuring distances to {@code target}. */
+    DistanceField get(int target) {
+        int slot = 0;
+        for (int i = 0; i < CAPACITY; i++) {
+            DistanceField field = fields[i];
+            if (field == null) {
+                slot = i;
+                break;
+            }
+            if (field.getTarget() == target) {
+                lastUsed[i] = ++uses;
+                return field;
+            }
+            if (lastUsed[i] < lastUsed[slot]) {
+                slot = i;
+            }
+        }
+
+        if (fields[slot] == null) {
+            fields[slot] = new DistanceField(columns, rows, exitMasks);
+        }
+        fields[slot].retarget(target);
+        lastUsed[slot] = ++uses;
+        return fields[slot];
+    }
+}
@@ -0,0 +1,13 @@
+package pacman.game;
+
+/**
+ * The stages of a running {@link PacManGame#tick()}, in execution order.
+ */
+public enum TickPhase {
+    MOVE_PACMAN,
+    EAT_PELLETS,
+    MOVE_GHOSTS,
+    GHOST_COLLISIONS,
+    LEVEL_PROGRESSION,
+    POWER_MODE
+}
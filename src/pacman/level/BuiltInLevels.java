@@ -0,0 +1,88 @@
+package pacman.level;
+
+/** The three 19x21 mazes that ship with the game. */
+public final class BuiltInLevels implements LevelSource {
+    public static final BuiltInLevels INSTANCE = new BuiltInLevels();
+
+    private final Level[] levels = {
+            Level.fromRows(
+                    "XXXXXXXXXXXXXXXXXXX",
+                    "XF       X       FX",
+                    "X XX XXX X XXX XX X",
+                    "X                 X",
+                    "X XX X XXXXX X XX X",
+                    "X    X       X    X",
+                    "XXXX XXXX XXXX XXXX",
+                    "OOOX X       X XOOO",
+                    "XXXX X XXrXX X XXXX",
+                    "OX       bpo     XO",
+                    "XXXX X XXXXX X XXXX",
+                    "OOOX X       X XOOO",
+                    "XXXX X XXXXX X XXXX",
+                    "X        X        X",
+                    "X XX XXX X XXX XX X",
+                    "X  X     P     X  X",
+                    "XX X X XXXXX X X XX",
+                    "X    X   X   X    X",
+                    "X XXXXXX X XXXXXX X",
+                    "XF               FX",
+                    "XXXXXXXXXXXXXXXXXXX"),
+            Level.fromRows(
+                    "XXXXXXXXXXXXXXXXXXX",
+                    "XF  X    X    X  FX",
+                    "X XX XXX X XXX XX X",
+                    "X  X           X  X",
+                    "X XX X XXXXX X XX X",
+                    "X    X X   X X    X",
+                    "XXXX XXXX XXXX XXXX",
+                    "OOOX X       X XOOO",
+                    "XXXX X XXrXX X XXXX",
+                    "OX       bpo     XO",
+                    "XXXX X XXXXX X XXXX",
+                    "OOOX X       X XOOO",
+                    "XXXX X XXXXX X XXXX",
+                    "X XXX    X    XXX X",
+                    "X XX XXX X XXX XX X",
+                    "X  X     P     X  X",
+                    "XX X X XXXXX X X XX",
+                    "X    X   X   X    X",
+                    "X XXXXXX X XXXXXX X",
+                    "X   F         F   X",
+                    "XXXXXXXXXXXXXXXXXXX"),
+            Level.fromRows(
+                    "XXXXXXXXXXXXXXXXXXX",
+                    "XF   X       X   FX",
+                    "X XXX XXXXXXX XXX X",
+                    "X   X         X   X",
+                    "XXX X XXX XXX X XXX",
+                    "X                 X",
+                    "XXXX XXXX XXXX XXXX",
+                    "OOOX X       X XOOO",
+                    "XXXX X XXrXX X XXXX",
+                    "OX       bpo     XO",
+                    "XXXX X XXXXX X XXXX",
+                    "OOOX X       X XOOO",
+                    "XXXX X XXXXX X XXXX",
+                    "X                 X",
+                    "X XXX XXXXXXX XXX X",
+                    "X   X    P    X   X",
+                    "XXX X XXX XXX X XXX",
+                    "X   X         X   X",
+                    "X XXX XXXXXXX XXX X",
+                    "XF               FX",
+                    "XXXXXXXXXXXXXXXXXXX")
+    };
+
+    private BuiltInLevels() {
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    @Override
+    public Level getLevel(int index) {
+        return levels[index];
+    }
+}
@@ -0,0 +1,107 @@
+package pacman.level;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One map: a rectangle of tile characters, row-major.
+ *
+ * Tile legend:
+ * - X: wall
+ * - ' ': pellet
+ * - F: power pellet
+ * - P: Pac-Man start
+ * - b/o/r/p: ghost spawns
+ * - O: empty path (no pellet)
+ *
+ * Each ghost spawn letter can also name the brain that drives the ghosts spawned from it (for example "ambusher");
+ * letters without one use the game's default.
+ */
+public final class Level {
+    public static final int MAX_DIMENSION = 0xFFFF;
+    /** The ghost spawn letters, in the order their brain names are stored. */
+    public static final String GHOST_SPAWNS = "bopr";
+    public static final int MAX_BRAIN_NAME_LENGTH = 0xFF;
+
+    private final int columns;
+    private final int rows;
+    private final byte[] tiles;
+    private final String[] ghostBrains; // by GHOST_SPAWNS index; null = default
+
+    /** Takes ownership of {@code tiles} ({@code columns * rows} legend characters, row-major). */
+    public Level(int columns, int rows, byte[] tiles) {
+        this(columns, rows, tiles, new String[GHOST_SPAWNS.length()]);
+    }
+
+    private Level(int columns, int rows, byte[] tiles, String[] ghostBrains) {
+        if (columns < 1 || columns > MAX_DIMENSION || rows < 1 || rows > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Invalid level size " + columns + "x" + rows);
+        }
+        if ((long) columns * rows != tiles.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + ((long) columns * rows) + " tiles for " + columns + "x" + rows + ", found " + tiles.length);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.tiles = tiles;
+        this.ghostBrains = ghostBrains;
+    }
+
+    /** Builds a level from one string per row; every row must have the same length. */
+    public static Level fromRows(String... rows) {
+        if (rows.length == 0) {
+            throw new IllegalArgumentException("Invalid level: no rows");
+        }
+        int columns = rows[0].length();
+        byte[] tiles = new byte[columns * rows.length];
+        for (int row = 0; row < rows.length; row++) {
+            if (rows[row].length() != columns) {
+                throw new IllegalArgumentException(
+                        "Invalid level row " + row + ": expected " + columns + " cols, found " + rows[row].length());
+            }
+            byte[] line = rows[row].getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(line, 0, tiles, row * columns, columns);
+        }
+        return new Level(columns, rows.length, tiles);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public char tileAt(int col, int row) {
+        return (char) tiles[row * columns + col];
+    }
+
+    /** The brain named for ghosts spawned from {@code spawn} (one of {@link #GHOST_SPAWNS}), or null for the default. */
+    public String getGhostBrain(char spawn) {
+        return ghostBrains[spawnIndex(spawn)];
+    }
+
+    /** A copy of this level whose {@code spawn} ghosts use the brain called {@code brain}; null restores the default. */
+    public Level withGhostBrain(char spawn, String brain) {
+        if (brain != null && (brain.isEmpty() || brain.length() > MAX_BRAIN_NAME_LENGTH
+                || !StandardCharsets.US_ASCII.newEncoder().canEncode(brain))) {
+            throw new IllegalArgumentException("Invalid ghost brain name '" + brain + "'");
+        }
+        String[] brains = ghostBrains.clone();
+        brains[spawnIndex(spawn)] = brain;
+        return new Level(columns, rows, tiles, brains);
+    }
+
+    private static int spawnIndex(char spawn) {
+        int index = GHOST_SPAWNS.indexOf(spawn);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not a ghost spawn: '" + spawn + "'");
+        }
+        return index;
+    }
+
+    /** Raw tile bytes, row-major; used by {@link LevelPack.Writer}. */
+    byte[] tiles() {
+        return tiles;
+    }
+}
@@ -0,0 +1,347 @@
+package pacman.level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A file of levels, memory-mapped and parsed one level at a time, so packs with thousands of large maps cost only
+ * the level being played.
+ *
+ * Binary layout (big-endian): magic "PMLP", version byte, level count (int), then one file offset (long) per level,
+ * then per level its column count (unsigned short), row count (unsigned short), one ghost brain name per
+ * {@link Level#GHOST_SPAWNS} letter (unsigned byte length, 0 for the default, then ASCII) and {@code columns * rows}
+ * tile bytes using the {@link Level} legend.
+ *
+ * Version 2 added the brain names. Version 1 packs, which have none, are still read; their ghosts use the default
+ * brains.
+ *
+ * The file is mapped in fixed {@value #WINDOW_BYTES}-byte windows, each on first use and then kept until the pack is
+ * closed, so requesting a level rarely maps anything and the operating system pages in only the levels that are read.
+ * Packs may be any size; a level whose bytes straddle two windows is read with a plain file read instead. A single
+ * level may not take more than one window.
+ */
+public final class LevelPack implements LevelSource, Closeable {
+    private static final int MAGIC = 0x504D4C50; // "PMLP"
+    private static final int WINDOW_BYTES = 1 << 30;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 1 + 4;
+    private static final int LEVEL_HEADER_BYTES = 2 + 2;
+    private static final int MAX_BRAIN_BYTES = Level.GHOST_SPAWNS.length() * (1 + Level.MAX_BRAIN_NAME_LENGTH);
+    private static final String BRAINS_PREFIX = "brains:"; // text maps only
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int version;
+    private final int levelCount;
+    // Window i covers the file from i * WINDOW_BYTES; null until first used. Shared by every thread reading this
+    // pack: only reads through a duplicate.
+    private final MappedByteBuffer[] windows;
+    private Set<String> ghostBrainNames; // guarded by this
+
+    private LevelPack(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.fileSize = channel.size();
+        if (fileSize < HEADER_BYTES) {
+            throw new IOException("Not a level pack: " + file);
+        }
+        this.windows = new MappedByteBuffer[(int) ((fileSize + WINDOW_BYTES - 1) / WINDOW_BYTES)];
+
+        ByteBuffer header = read(0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a level pack: " + file);
+        }
+        this.version = header.get() & 0xFF;
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported level pack version " + version);
+        }
+        this.levelCount = header.getInt();
+        if (levelCount < 1 || HEADER_BYTES + (long) levelCount * Long.BYTES > fileSize) {
+            throw new IOException("Level pack " + file + " has an invalid level count: " + levelCount);
+        }
+    }
+
+    public static LevelPack open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new LevelPack(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    @Override
+    public Level getLevel(int index) {
+        if (index < 0 || index >= levelCount) {
+            throw new IndexOutOfBoundsException("Level " + index + " of " + levelCount);
+        }
+        try {
+            long offset = levelOffset(index);
+            ByteBuffer header = levelHeader(offset);
+            int columns = header.getShort() & 0xFFFF;
+            int rows = header.getShort() & 0xFFFF;
+            String[] brains = new String[Level.GHOST_SPAWNS.length()];
+            if (version > 1) {
+                for (int i = 0; i < brains.length; i++) {
+                    brains[i] = readBrainName(header, index);
+                }
+            }
+            long tilesOffset = offset + header.position();
+            long tileCount = (long) columns * rows;
+            if (tileCount > fileSize - tilesOffset) {
+                throw new IllegalStateException("Level " + (index + 1) + " in " + file + " is truncated");
+            }
+            if (tilesOffset - offset + tileCount > WINDOW_BYTES) {
+                throw new IllegalStateException("Level " + (index + 1) + " in " + file + " is larger than "
+                        + WINDOW_BYTES + " bytes");
+            }
+            return level(columns, rows, read(tilesOffset, (int) tileCount), brains);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read level " + (index + 1) + " from " + file, e);
+        }
+    }
+
+    /**
+     * Reads only the level headers, so checking a pack of thousands of levels does not parse their tiles. The
+     * result is computed on the first call and kept.
+     */
+    @Override
+    public synchronized Set<String> getGhostBrainNames() {
+        if (ghostBrainNames != null) {
+            return ghostBrainNames;
+        }
+        Set<String> names = new HashSet<>();
+        if (version > 1) {
+            try {
+                for (int index = 0; index < levelCount; index++) {
+                    ByteBuffer header = levelHeader(levelOffset(index));
+                    header.position(LEVEL_HEADER_BYTES);
+                    for (int i = 0; i < Level.GHOST_SPAWNS.length(); i++) {
+                        String name = readBrainName(header, index);
+                        if (name != null) {
+                            names.add(name);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read the level headers of " + file, e);
+            }
+        }
+        ghostBrainNames = Collections.unmodifiableSet(names);
+        return ghostBrainNames;
+    }
+
+    private long levelOffset(int index) throws IOException {
+        long offset = read(HEADER_BYTES + (long) index * Long.BYTES, Long.BYTES).getLong();
+        if (offset < HEADER_BYTES || offset + LEVEL_HEADER_BYTES > fileSize) {
+            throw new IllegalStateException("Level " + (index + 1) + " in " + file + " has a bad offset: " + offset);
+        }
+        return offset;
+    }
+
+    /** The header of the level at {@code offset}, followed by whatever comes after it. */
+    private ByteBuffer levelHeader(long offset) throws IOException {
+        // Brain names vary in length, so read as much header as there can be and continue after what was used.
+        return read(offset, (int) Math.min(LEVEL_HEADER_BYTES + MAX_BRAIN_BYTES, fileSize - offset));
+    }
+
+    private static Level level(int columns, int rows, ByteBuffer tileBytes, String[] brains) {
+        byte[] tiles = new byte[columns * rows];
+        tileBytes.get(tiles);
+        Level result = new Level(columns, rows, tiles);
+        for (int i = 0; i < brains.length; i++) {
+            if (brains[i] != null) {
+                result = result.withGhostBrain(Level.GHOST_SPAWNS.charAt(i), brains[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The {@code length} bytes at {@code position}, as a buffer of its own. Read from the window holding them when
+     * there is one; bytes straddling two windows are read from the file.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        int window = (int) (position / WINDOW_BYTES);
+        int start = (int) (position % WINDOW_BYTES);
+        if (start + length <= WINDOW_BYTES) {
+            ByteBuffer bytes = window(window).duplicate();
+            bytes.position(start).limit(start + length);
+            return bytes.slice();
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    private synchronized MappedByteBuffer window(int index) throws IOException {
+        MappedByteBuffer window = windows[index];
+        if (window == null) {
+            long start = (long) index * WINDOW_BYTES;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, fileSize - start));
+            windows[index] = window;
+        }
+        return window;
+    }
+
+    private String readBrainName(ByteBuffer header, int index) {
+        if (!header.hasRemaining()) {
+            throw new IllegalStateException("Level " + (index + 1) + " in " + file + " is truncated");
+        }
+        int length = header.get() & 0xFF;
+        if (length == 0) {
+            return null;
+        }
+        if (header.remaining() < length) {
+            throw new IllegalStateException("Level " + (index + 1) + " in " + file + " is truncated");
+        }
+        byte[] name = new byte[length];
+        header.get(name);
+        return new String(name, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Streams levels into a new pack without holding them in memory: the offset table is reserved up front and filled
+     * in by {@link #close()}.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final int levelCount;
+        private final ByteBuffer offsets;
+        private int written;
+
+        public Writer(Path file, int levelCount) throws IOException {
+            if (levelCount < 1) {
+                throw new IllegalArgumentException("levelCount must be positive");
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.levelCount = levelCount;
+            this.offsets = ByteBuffer.allocate(levelCount * Long.BYTES);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).put((byte) VERSION).putInt(levelCount).flip();
+            writeFully(header, 0);
+            channel.position(HEADER_BYTES + (long) levelCount * Long.BYTES);
+        }
+
+        public void add(Level level) throws IOException {
+            if (written == levelCount) {
+                throw new IllegalStateException("All " + levelCount + " levels have already been written");
+            }
+            offsets.putLong(channel.position());
+            ByteBuffer header = ByteBuffer.allocate(LEVEL_HEADER_BYTES + MAX_BRAIN_BYTES);
+            header.putShort((short) level.getColumns()).putShort((short) level.getRows());
+            for (int i = 0; i < Level.GHOST_SPAWNS.length(); i++) {
+                String brain = level.getGhostBrain(Level.GHOST_SPAWNS.charAt(i));
+                byte[] name = brain == null ? new byte[0] : brain.getBytes(StandardCharsets.US_ASCII);
+                header.put((byte) name.length).put(name);
+            }
+            header.flip();
+            writeFully(header, channel.position());
+            writeFully(ByteBuffer.wrap(level.tiles()), channel.position());
+            written++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (written != levelCount) {
+                    throw new IllegalStateException("Expected " + levelCount + " levels, wrote " + written);
+                }
+                offsets.flip();
+                writeFully(offsets, HEADER_BYTES);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.position(Math.max(channel.position(), position));
+        }
+    }
+
+    /**
+     * Packs text maps (one row per line) into a level pack. With no maps it packs the built-in levels. A map line of
+     * the form {@code brains: r=chaser p=ambusher} names the brains of those spawn letters instead of being a row.
+     *
+     * Usage: {@code LevelPack <output.pack> [map.txt ...]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LevelPack <output.pack> [map.txt ...]");
+            System.exit(2);
+            return;
+        }
+        Path output = Paths.get(args[0]);
+        int levelCount = args.length > 1 ? args.length - 1 : BuiltInLevels.INSTANCE.getLevelCount();
+        try (Writer writer = new Writer(output, levelCount)) {
+            for (int i = 0; i < levelCount; i++) {
+                writer.add(args.length > 1 ? readTextMap(Paths.get(args[i + 1])) : BuiltInLevels.INSTANCE.getLevel(i));
+            }
+        }
+        System.out.println("Wrote " + levelCount + " levels to " + output);
+    }
+
+    private static Level readTextMap(Path file) throws IOException {
+        List<String> rows = new ArrayList<>();
+        List<String> brains = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+            if (line.startsWith(BRAINS_PREFIX)) {
+                for (String brain : line.substring(BRAINS_PREFIX.length()).trim().split("\\s+")) {
+                    if (!brain.isEmpty()) {
+                        brains.add(brain);
+                    }
+                }
+            } else if (!line.isEmpty()) {
+                rows.add(line);
+            }
+        }
+        try {
+            Level level = Level.fromRows(rows.toArray(new String[0]));
+            for (String brain : brains) {
+                if (brain.length() < 3 || brain.charAt(1) != '=') {
+                    throw new IllegalArgumentException("Expected <spawn>=<brain>, found '" + brain + "'");
+                }
+                level = level.withGhostBrain(brain.charAt(0), brain.substring(2));
+            }
+            return level;
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package pacman.level;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/** Where a game gets its levels from. Implementations must allow concurrent {@link #getLevel} calls. */
+public interface LevelSource {
+    int getLevelCount();
+
+    /** Returns level {@code index} (0-based); may parse it on every call, so callers keep the result. */
+    Level getLevel(int index);
+
+    /**
+     * Every ghost brain name any level uses, so a game can reject names it cannot resolve before play starts. The
+     * default reads every level; sources that can answer more cheaply should override it.
+     */
+    default Set<String> getGhostBrainNames() {
+        Set<String> names = new HashSet<>();
+        for (int index = 0; index < getLevelCount(); index++) {
+            Level level = getLevel(index);
+            for (int i = 0; i < Level.GHOST_SPAWNS.length(); i++) {
+                String name = level.getGhostBrain(Level.GHOST_SPAWNS.charAt(i));
+                if (name != null) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+}
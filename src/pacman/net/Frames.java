@@ -0,0 +1,26 @@
+package pacman.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Framing shared by {@link TickServer} and {@link SpectatorClient}: each {@link pacman.game.StateEncoder} message
+ * travels as a 4-byte payload length, a type byte and the payload.
+ */
+final class Frames {
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    static final int HEADER_BYTES = Integer.BYTES + 1;
+    // Far above any real board (a 1000x1000 keyframe is about 1 MiB); a larger length means a corrupt stream.
+    static final int MAX_PAYLOAD_BYTES = 64 << 20;
+
+    private Frames() {
+    }
+
+    /** A new buffer holding {@code payload} framed as {@code type}, ready to write. */
+    static ByteBuffer frame(byte type, ByteBuffer payload) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.remaining());
+        frame.putInt(payload.remaining()).put(type).put(payload).flip();
+        return frame;
+    }
+}
@@ -0,0 +1,215 @@
+package pacman.net;
+
+import java.awt.EventQueue;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import javax.swing.JFrame;
+
+import pacman.game.PacManGame;
+import pacman.game.StateDecoder;
+import pacman.ui.PacManPanel;
+import pacman.ui.SpectatorPanel;
+
+/**
+ * Watches a {@link TickServer}: reads its frames from a blocking socket and applies them to a local mirror of the
+ * game. The mirror is changed under {@link #getLock()}; a renderer on another thread must hold the lock while drawing.
+ */
+public final class SpectatorClient implements Closeable {
+    // Gaps longer than this are pauses on the server, not its tick rate.
+    private static final long MAX_TICK_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final SocketChannel channel;
+    private final StateDecoder decoder = new StateDecoder();
+    private final Object lock = new Object();
+    private final ByteBuffer header = ByteBuffer.allocate(Frames.HEADER_BYTES);
+    private ByteBuffer payload = ByteBuffer.allocate(4096);
+
+    private volatile long lastFrameNanos;
+    private volatile long tickIntervalNanos = PacManGame.TICK_MS * 1_000_000L;
+    private volatile long frames;
+    private volatile long keyframes;
+    private volatile long bytesReceived;
+
+    private SpectatorClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Connects and waits for the first keyframe, so {@link #getGame()} is ready when this returns. */
+    public static SpectatorClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        SpectatorClient client = new SpectatorClient(channel);
+        try {
+            channel.socket().setTcpNoDelay(true);
+            while (client.decoder.getGame() == null) {
+                if (!client.receive()) {
+                    throw new EOFException("Server closed the connection before the first keyframe");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return client;
+    }
+
+    /** The mirrored game; read it only while holding {@link #getLock()}. */
+    public PacManGame getGame() {
+        return decoder.getGame();
+    }
+
+    public Object getLock() {
+        return lock;
+    }
+
+    /**
+     * Reads one frame and applies it. Returns false when the server closed the connection between frames.
+     *
+     * @throws EOFException if it closed in the middle of one
+     */
+    public boolean receive() throws IOException {
+        header.clear();
+        if (!readFully(header, true)) {
+            return false;
+        }
+        header.flip();
+        int length = header.getInt();
+        byte type = header.get();
+        if (length < 0 || length > Frames.MAX_PAYLOAD_BYTES) {
+            throw new IOException("Bad frame length " + length);
+        }
+        if (payload.capacity() < length) {
+            payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+        }
+        payload.clear().limit(length);
+        readFully(payload, false);
+        payload.flip();
+
+        synchronized (lock) {
+            if (type == Frames.KEYFRAME) {
+                decoder.applyKeyframe(payload);
+                keyframes++;
+            } else if (type == Frames.DELTA) {
+                decoder.applyDelta(payload);
+            } else {
+                throw new IOException("Unknown frame type " + type);
+            }
+        }
+
+        long now = System.nanoTime();
+        long interval = now - lastFrameNanos;
+        if (frames > 0 && interval < MAX_TICK_INTERVAL_NANOS) {
+            tickIntervalNanos += (interval - tickIntervalNanos) / 8;
+        }
+        lastFrameNanos = now;
+        frames++;
+        bytesReceived += Frames.HEADER_BYTES + length;
+        return true;
+    }
+
+    /** Receives frames until the server disconnects or the client is closed. */
+    public void receiveAll() throws IOException {
+        while (channel.isOpen() && receive()) {
+            // Applied in receive().
+        }
+    }
+
+    /**
+     * How far (0..1) the next tick has likely progressed at {@code nanoTime}, judged from the server's recent tick
+     * rate; renderers interpolate actors by it.
+     */
+    public float getInterpolation(long nanoTime) {
+        return Math.min(1f, Math.max(0f, (nanoTime - lastFrameNanos) / (float) tickIntervalNanos));
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getKeyframes() {
+        return keyframes;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean readFully(ByteBuffer buffer, boolean endAllowed) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (endAllowed && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connection closed inside a frame");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Usage: {@code SpectatorClient [--host h] [--port n] [--fps n] [--headless [--frames n]]}; headless runs print
+     * stream statistics instead of opening a window.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = "localhost";
+        int port = 7777;
+        int fps = PacManPanel.displayRefreshRate();
+        boolean headless = false;
+        long maxFrames = 0;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--host") && i + 1 < args.length) {
+                host = args[++i];
+            } else if (arg.equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--fps") && i + 1 < args.length) {
+                fps = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--frames") && i + 1 < args.length) {
+                maxFrames = Long.parseLong(args[++i]);
+            } else if (arg.equals("--headless")) {
+                headless = true;
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        SpectatorClient client = connect(new InetSocketAddress(host, port));
+        if (headless) {
+            try (SpectatorClient c = client) {
+                while ((maxFrames == 0 || c.getFrames() < maxFrames) && c.receive()) {
+                    // Applied in receive().
+                }
+                PacManGame game = c.getGame();
+                System.out.printf("%d frames (%d keyframes), %.1f bytes/frame; tick %d, score %d, level %d%n",
+                        c.getFrames(), c.getKeyframes(), (double) c.getBytesReceived() / c.getFrames(),
+                        game.getTickCount(), game.getScore(), game.getLevelIndex() + 1);
+            }
+            return;
+        }
+
+        int framesPerSecond = fps;
+        EventQueue.invokeLater(() -> {
+            JFrame frame = new JFrame("Pac Man - watching " + client.channel.socket().getRemoteSocketAddress());
+            frame.setResizable(false);
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.add(new SpectatorPanel(client, framesPerSecond));
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+        try {
+            client.receiveAll();
+            System.out.println("Server closed the connection");
+        } finally {
+            client.close();
+        }
+    }
+}
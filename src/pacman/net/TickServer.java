@@ -0,0 +1,382 @@
+package pacman.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import pacman.batch.BatchRunner;
+import pacman.batch.InputPolicy;
+import pacman.game.GameInput;
+import pacman.game.GameState;
+import pacman.game.PacManGame;
+import pacman.game.StateEncoder;
+import pacman.level.BuiltInLevels;
+import pacman.level.LevelPack;
+import pacman.level.LevelSource;
+
+/**
+ * Runs one authoritative {@link PacManGame} and streams it to any number of spectators. A single thread ticks the
+ * game on schedule and serves every connection through a non-blocking {@link Selector}, so slow or stalled viewers
+ * never delay the game.
+ *
+ * After each tick the change is encoded once with a {@link StateEncoder} and the same bytes are queued for every
+ * spectator. A keyframe is sent when a level loads and to each newly joined spectator; everything else is deltas.
+ * A spectator that falls more than {@link #MAX_PENDING_BYTES} behind has its backlog dropped and is resynced with a
+ * keyframe. Spectators only listen; anything they send is discarded.
+ */
+public final class TickServer implements Closeable {
+    static final int MAX_PENDING_BYTES = 1 << 20;
+    // Ticks the result of a finished game stays on screen before the next one starts (5 s at normal speed).
+    private static final int RESTART_DELAY_TICKS = 5000 / PacManGame.TICK_MS;
+    // After a longer stall the missed ticks are skipped rather than run back to back.
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    // How long a stopping server keeps writing to spectators that have not received everything yet.
+    private static final long SHUTDOWN_FLUSH_MILLIS = 2000;
+
+    private final PacManGame game;
+    private final InputPolicy policy;
+    private final long nanosPerTick;
+    private final StateEncoder encoder;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final List<Spectator> spectators = new ArrayList<>();
+    private final ByteBuffer discard = ByteBuffer.allocate(512);
+
+    private volatile boolean running = true;
+    private long gameOverTicks;
+    private long bytesEncoded;
+    private long ticks;
+    private long resyncs;
+
+    /** Serves {@code game}, pressing keys through {@code policy}; port 0 picks a free port (see {@link #getPort()}). */
+    public TickServer(PacManGame game, InputPolicy policy, InetSocketAddress address, long nanosPerTick)
+            throws IOException {
+        if (nanosPerTick <= 0) {
+            throw new IllegalArgumentException("nanosPerTick must be positive");
+        }
+        this.game = game;
+        this.policy = policy;
+        this.nanosPerTick = nanosPerTick;
+        this.encoder = new StateEncoder(game);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Ticks the game and serves spectators until {@link #close()} is called from another thread or {@code maxTicks}
+     * ticks have run (0 for no limit).
+     */
+    public void run(long maxTicks) throws IOException {
+        try {
+            long nextTick = System.nanoTime();
+            while (running && (maxTicks == 0 || ticks < maxTicks)) {
+                long waitNanos = nextTick - System.nanoTime();
+                if (waitNanos >= 1_000_000L) {
+                    selector.select(waitNanos / 1_000_000L);
+                } else {
+                    selector.selectNow();
+                }
+                handleReadyKeys();
+
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    tick();
+                    nextTick += nanosPerTick;
+                    if (now - nextTick > MAX_CATCH_UP_TICKS * nanosPerTick) {
+                        nextTick = now + nanosPerTick;
+                    }
+                }
+            }
+            finishSending();
+        } finally {
+            closeChannels();
+        }
+    }
+
+    /** Stops {@link #run(long)}; safe to call from any thread. */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /** Encoded bytes per tick, before they are copied to each spectator. */
+    public long getBytesEncoded() {
+        return bytesEncoded;
+    }
+
+    public int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    /** How often a spectator fell too far behind and had to be resynced. */
+    public long getResyncs() {
+        return resyncs;
+    }
+
+    private void tick() throws IOException {
+        policy.beforeTick(game);
+        game.tick();
+        ticks++;
+        GameState state = game.getGameState();
+        if (state == GameState.WIN || state == GameState.GAME_OVER) {
+            if (++gameOverTicks >= RESTART_DELAY_TICKS) {
+                gameOverTicks = 0;
+                game.onInput(GameInput.CONFIRM);
+            }
+        }
+
+        boolean keyframe = encoder.needsKeyframe();
+        ByteBuffer frame = keyframe
+                ? Frames.frame(Frames.KEYFRAME, encoder.encodeKeyframe())
+                : Frames.frame(Frames.DELTA, encoder.encodeDelta());
+        bytesEncoded += frame.remaining();
+        // Built at most once a tick, for spectators that joined or fell behind; it also rebases the encoder on the
+        // same state the delta above ended on, so the next delta still applies to everyone.
+        ByteBuffer resync = keyframe ? frame : null;
+
+        for (Iterator<Spectator> it = spectators.iterator(); it.hasNext(); ) {
+            Spectator spectator = it.next();
+            ByteBuffer message = frame;
+            if (spectator.needsKeyframe) {
+                if (resync == null) {
+                    resync = Frames.frame(Frames.KEYFRAME, encoder.encodeKeyframe());
+                }
+                message = resync;
+                spectator.needsKeyframe = false;
+            }
+            if (!spectator.send(message.duplicate())) {
+                it.remove();
+            }
+        }
+    }
+
+    private void handleReadyKeys() throws IOException {
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Spectator spectator = (Spectator) key.attachment();
+            boolean open = true;
+            if (key.isReadable()) {
+                open = spectator.drainInput();
+            }
+            if (open && key.isValid() && key.isWritable()) {
+                open = spectator.flush();
+            }
+            if (!open) {
+                spectators.remove(spectator);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Spectator spectator = new Spectator(channel);
+            spectator.key = channel.register(selector, SelectionKey.OP_READ, spectator);
+            spectators.add(spectator);
+        }
+    }
+
+    /** Lets spectators receive what is already queued before the connections close, within a time limit. */
+    private void finishSending() throws IOException {
+        long deadline = System.nanoTime() + SHUTDOWN_FLUSH_MILLIS * 1_000_000L;
+        while (spectators.stream().anyMatch(Spectator::hasPending)) {
+            long waitMillis = (deadline - System.nanoTime()) / 1_000_000L;
+            if (waitMillis <= 0) {
+                break;
+            }
+            selector.select(waitMillis);
+            handleReadyKeys();
+        }
+    }
+
+    private void closeChannels() throws IOException {
+        for (Spectator spectator : spectators) {
+            spectator.close();
+        }
+        spectators.clear();
+        serverChannel.close();
+        selector.close();
+    }
+
+    /** One connection and the frames queued for it; the head frame may be partly written. */
+    private final class Spectator {
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        private SelectionKey key;
+        private long pendingBytes;
+        boolean needsKeyframe = true;
+
+        Spectator(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /** Queues {@code frame} and writes what the socket takes; false if the connection is gone. */
+        boolean send(ByteBuffer frame) {
+            if (pendingBytes > MAX_PENDING_BYTES) {
+                dropBacklog();
+                return true;
+            }
+            queue.addLast(frame);
+            pendingBytes += frame.remaining();
+            return flush();
+        }
+
+        /** Keeps only a partly written head frame, so the stream stays framed, and asks for a keyframe. */
+        private void dropBacklog() {
+            ByteBuffer head = queue.peekFirst();
+            boolean headStarted = head != null && head.position() > 0;
+            queue.clear();
+            pendingBytes = 0;
+            if (headStarted) {
+                queue.addLast(head);
+                pendingBytes = head.remaining();
+            }
+            needsKeyframe = true;
+            resyncs++;
+        }
+
+        boolean hasPending() {
+            return !queue.isEmpty();
+        }
+
+        boolean flush() {
+            try {
+                while (!queue.isEmpty()) {
+                    ByteBuffer head = queue.peekFirst();
+                    pendingBytes -= channel.write(head);
+                    if (head.hasRemaining()) {
+                        break;
+                    }
+                    queue.removeFirst();
+                }
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+            // Only wait for writability while something is queued; otherwise the selector would spin.
+            key.interestOps(queue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            return true;
+        }
+
+        boolean drainInput() {
+            try {
+                int read;
+                do {
+                    discard.clear();
+                    read = channel.read(discard);
+                } while (read > 0);
+                if (read < 0) {
+                    close();
+                    return false;
+                }
+                return true;
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing more to send to this spectator either way.
+            }
+        }
+    }
+
+    /**
+     * Usage: {@code TickServer [--port n] [--seed s] [--policy p] [--speed x] [--max-ticks m] [--levels pack]}
+     * where p is a {@link BatchRunner} policy (default {@code random}) and x scales the tick rate.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 7777;
+        long seed = 1;
+        String policySpec = "random";
+        double speed = 1.0;
+        long maxTicks = 0;
+        String levelPack = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("--policy") && i + 1 < args.length) {
+                policySpec = args[++i];
+            } else if (arg.equals("--speed") && i + 1 < args.length) {
+                speed = Double.parseDouble(args[++i]);
+            } else if (arg.equals("--max-ticks") && i + 1 < args.length) {
+                maxTicks = Long.parseLong(args[++i]);
+            } else if (arg.equals("--levels") && i + 1 < args.length) {
+                levelPack = args[++i];
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be positive");
+        }
+
+        LevelPack pack = levelPack != null ? LevelPack.open(Paths.get(levelPack)) : null;
+        LevelSource levels = pack != null ? pack : BuiltInLevels.INSTANCE;
+        try {
+            InputPolicy.Factory factory = BatchRunner.parsePolicy(policySpec);
+            PacManGame game = new PacManGame(factory.gameSeed(0, seed), levels);
+            long nanosPerTick = Math.max(1, (long) (PacManGame.TICK_MS * 1_000_000L / speed));
+            try (TickServer server = new TickServer(game, factory.create(0, seed), new InetSocketAddress(port),
+                    nanosPerTick)) {
+                System.out.println("Serving on port " + server.getPort());
+                long start = System.nanoTime();
+                server.run(maxTicks);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%d ticks in %.2fs, %.1f bytes/tick, %d resyncs%n", server.getTicks(), seconds,
+                        (double) server.getBytesEncoded() / Math.max(1, server.getTicks()), server.getResyncs());
+            }
+        } finally {
+            if (pack != null) {
+                pack.close();
+            }
+        }
+    }
+}
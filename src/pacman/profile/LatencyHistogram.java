@@ -0,0 +1,111 @@
+package pacman.profile;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling latency histogram with power-of-two nanosecond buckets over the last {@link #WINDOW_SECONDS} seconds.
+ *
+ * The window is a ring of one-second slots; a slot is wiped when it is first written in a new second. Recording is
+ * lock-free and allocation-free. Two writers racing on a slot rollover can lose a handful of samples, which is fine
+ * for monitoring.
+ */
+final class LatencyHistogram {
+    static final int BUCKET_COUNT = 32; // bucket i holds [2^i, 2^(i+1)) ns; the last is open-ended (>= 2^31 ns, ~2.1 s)
+    static final int WINDOW_SECONDS = 10;
+
+    private static final long SLOT_NANOS = 1_000_000_000L;
+    private static final int TOTAL = BUCKET_COUNT;
+    private static final int MAX = BUCKET_COUNT + 1;
+    private static final int STRIDE = BUCKET_COUNT + 2;
+
+    private final AtomicLongArray slots = new AtomicLongArray(WINDOW_SECONDS * STRIDE);
+    private final AtomicLongArray slotEpochs = new AtomicLongArray(WINDOW_SECONDS);
+
+    void record(long nanos, long nowNanos) {
+        long epoch = nowNanos / SLOT_NANOS;
+        int slot = (int) Math.floorMod(epoch, (long) WINDOW_SECONDS);
+        long slotEpoch = slotEpochs.get(slot);
+        if (slotEpoch != epoch && slotEpochs.compareAndSet(slot, slotEpoch, epoch)) {
+            int base = slot * STRIDE;
+            for (int i = 0; i < STRIDE; i++) {
+                slots.set(base + i, 0);
+            }
+        }
+
+        int base = slot * STRIDE;
+        slots.incrementAndGet(base + bucketOf(nanos));
+        slots.addAndGet(base + TOTAL, nanos);
+        long max;
+        do {
+            max = slots.get(base + MAX);
+        } while (nanos > max && !slots.compareAndSet(base + MAX, max, nanos));
+    }
+
+    /** Copies the current window into {@code snapshot}. */
+    void snapshot(long nowNanos, Snapshot snapshot) {
+        long oldestEpoch = nowNanos / SLOT_NANOS - WINDOW_SECONDS + 1;
+        snapshot.clear();
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            if (slotEpochs.get(slot) < oldestEpoch) {
+                continue;
+            }
+            int base = slot * STRIDE;
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                long count = slots.get(base + bucket);
+                snapshot.counts[bucket] += count;
+                snapshot.count += count;
+            }
+            snapshot.totalNanos += slots.get(base + TOTAL);
+            snapshot.maxNanos = Math.max(snapshot.maxNanos, slots.get(base + MAX));
+        }
+    }
+
+    void reset() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, 63 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /** Exclusive upper bound of a bucket, in nanoseconds. */
+    static long bucketUpperBound(int bucket) {
+        return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << (bucket + 1);
+    }
+
+    static final class Snapshot {
+        final long[] counts = new long[BUCKET_COUNT];
+        long count;
+        long totalNanos;
+        long maxNanos;
+
+        void clear() {
+            Arrays.fill(counts, 0);
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+
+        /** Upper bound of the bucket holding the given percentile (0-100), capped at the observed max. */
+        long percentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(bucket), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
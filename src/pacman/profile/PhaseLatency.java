@@ -0,0 +1,49 @@
+package pacman.profile;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Latency summary of one tick phase over the rolling window. Exposed over JMX as composite data.
+ */
+public final class PhaseLatency {
+    private final String phase;
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double maxMicros;
+
+    @ConstructorProperties({"phase", "count", "meanMicros", "p50Micros", "p99Micros", "maxMicros"})
+    public PhaseLatency(String phase, long count, double meanMicros, double p50Micros, double p99Micros, double maxMicros) {
+        this.phase = phase;
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+}
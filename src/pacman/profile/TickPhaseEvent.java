@@ -0,0 +1,34 @@
+package pacman.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One phase of one game tick, as a JDK Flight Recorder event. Only committed while a recording has it enabled.
+ */
+@Name("pacman.TickPhase")
+@Label("Tick Phase")
+@Category("Pacman")
+@Description("Time spent in one phase of PacManGame.tick()")
+@StackTrace(false)
+final class TickPhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Tick")
+    long tick;
+
+    @Label("Phase Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long phaseDuration;
+
+    @Label("Ghosts")
+    int ghostCount;
+
+    @Label("Pellets Remaining")
+    int pelletsRemaining;
+}
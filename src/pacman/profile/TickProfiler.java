@@ -0,0 +1,116 @@
+package pacman.profile;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import pacman.game.PacManGame;
+import pacman.game.TickPhase;
+
+/**
+ * Times every phase of {@link PacManGame#tick()}. Each phase is emitted as a {@code pacman.TickPhase} Flight Recorder
+ * event and added to a rolling per-phase histogram that can be read through JMX
+ * ({@code pacman:type=TickProfiler}).
+ *
+ * One profiler may be shared by several games, on several threads. Disabled, it costs the game one volatile read
+ * per tick.
+ */
+public final class TickProfiler implements PacManGame.PhaseListener, TickProfilerMXBean {
+    public static final String OBJECT_NAME = "pacman:type=TickProfiler";
+
+    private static final TickPhase[] PHASES = TickPhase.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private volatile boolean enabled;
+
+    public TickProfiler(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public void attach(PacManGame game) {
+        game.setPhaseListener(this);
+    }
+
+    /** Registers this profiler with the platform MBean server under {@link #OBJECT_NAME}. */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void phaseCompleted(TickPhase phase, long tick, long durationNanos, int ghostCount, int pelletsRemaining) {
+        histograms[phase.ordinal()].record(durationNanos, System.nanoTime());
+
+        TickPhaseEvent event = new TickPhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase.name();
+            event.tick = tick;
+            event.phaseDuration = durationNanos;
+            event.ghostCount = ghostCount;
+            event.pelletsRemaining = pelletsRemaining;
+            event.commit();
+        }
+    }
+
+    @Override
+    public int getWindowSeconds() {
+        return LatencyHistogram.WINDOW_SECONDS;
+    }
+
+    @Override
+    public List<PhaseLatency> getPhaseLatencies() {
+        long now = System.nanoTime();
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot();
+        List<PhaseLatency> latencies = new ArrayList<>(PHASES.length);
+        for (TickPhase phase : PHASES) {
+            histograms[phase.ordinal()].snapshot(now, snapshot);
+            latencies.add(new PhaseLatency(
+                    phase.name(),
+                    snapshot.count,
+                    snapshot.count == 0 ? 0 : snapshot.totalNanos / (snapshot.count * 1000.0),
+                    snapshot.percentileNanos(50) / 1000.0,
+                    snapshot.percentileNanos(99) / 1000.0,
+                    snapshot.maxNanos / 1000.0));
+        }
+        return latencies;
+    }
+
+    @Override
+    public long[] getHistogram(String phase) {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot();
+        histograms[TickPhase.valueOf(phase).ordinal()].snapshot(System.nanoTime(), snapshot);
+        return snapshot.counts.clone();
+    }
+
+    @Override
+    public long[] getBucketUpperBoundsNanos() {
+        long[] bounds = new long[LatencyHistogram.BUCKET_COUNT];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = LatencyHistogram.bucketUpperBound(i);
+        }
+        return bounds;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package pacman.profile;
+
+import java.util.List;
+
+public interface TickProfilerMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    int getWindowSeconds();
+
+    /** One entry per tick phase, in execution order, summarising the rolling window. */
+    List<PhaseLatency> getPhaseLatencies();
+
+    /** Raw bucket counts for a phase over the rolling window; see {@link #getBucketUpperBoundsNanos()}. */
+    long[] getHistogram(String phase);
+
+    long[] getBucketUpperBoundsNanos();
+
+    void reset();
+}
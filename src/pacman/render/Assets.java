@@ -0,0 +1,64 @@
+package pacman.render;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+/**
+ * The decoded source images, at their original size. Renderers draw from a {@link SpriteAtlas} built from these
+ * rather than from the images themselves.
+ */
+public final class Assets {
+    private final BufferedImage[] images;
+
+    private Assets(BufferedImage[] images) {
+        this.images = images;
+    }
+
+    BufferedImage image(Sprite sprite) {
+        return images[sprite.ordinal()];
+    }
+
+    /**
+     * Decodes every sprite. The PNGs are independent, so they are decoded in parallel on the common pool; nothing
+     * goes through {@code ImageIcon}'s {@code MediaTracker}, and each image is decoded from a memory-cached stream
+     * since the inputs are small resources, so ImageIO's disk cache is never touched.
+     */
+    public static Assets load(Class<?> resourceBase) {
+        BufferedImage[] images = Arrays.stream(Sprite.values())
+                .parallel()
+                .map(sprite -> loadImage(resourceBase, sprite.filename))
+                .toArray(BufferedImage[]::new);
+        return new Assets(images);
+    }
+
+    private static BufferedImage loadImage(Class<?> resourceBase, String filename) {
+        // Resources live under src/assets/images and are copied to bin/assets/images by VS Code.
+        URL url = resourceBase.getResource("/assets/images/" + filename);
+        if (url == null) {
+            // Backwards-compatible fallbacks (older project structure).
+            url = resourceBase.getResource("/images/" + filename);
+        }
+        if (url == null) {
+            url = resourceBase.getResource("/" + filename);
+        }
+        if (url == null) {
+            throw new IllegalStateException("Missing resource: " + filename);
+        }
+        try (InputStream in = url.openStream()) {
+            // ImageIO.read closes the image stream itself.
+            BufferedImage image = ImageIO.read(new MemoryCacheImageInputStream(in));
+            if (image == null) {
+                throw new IllegalStateException("Unsupported image format: " + filename);
+            }
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + filename, e);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package pacman.render;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import pacman.game.PacManGame;
+
+import static pacman.game.PacManGame.TILE_SIZE;
+
+/**
+ * Walls and pellets pre-rendered in square chunks of {@link #CHUNK_TILES} tiles. Only chunks that intersect the
+ * viewport are drawn, so frame cost follows the viewport size rather than the map size.
+ *
+ * Chunk images live in a fixed pool of slots. A slot is assigned to a chunk the first time that chunk is visible and
+ * taken back from the least recently drawn chunk once the pool is full; a chunk that scrolls back into view is simply
+ * redrawn from the game state. Walls are drawn when a chunk is (re)built; eaten pellets are erased tile by tile the
+ * next time the chunk is drawn. Pellets never share a tile with a wall, so erasing cannot damage the walls. Everything
+ * is rebuilt when a level loads or the sprite atlas is replaced.
+ *
+ * Each slot's {@link BufferedImage} is the source of truth. When drawing to the screen it is mirrored into a
+ * {@link VolatileImage} so the per-frame blit stays in video memory; the mirror is refreshed whenever the chunk
+ * changes or the surface is lost.
+ */
+final class BoardLayer {
+    static final int CHUNK_TILES = 16;
+
+    private static final int CHUNK_SIZE = CHUNK_TILES * TILE_SIZE;
+    private static final int PELLET_SIZE = 4;
+    private static final int PELLET_OFFSET = (TILE_SIZE - PELLET_SIZE) / 2;
+    // Enough for a full-HD viewport twice over; grown when the viewport needs more.
+    private static final int MIN_SLOTS = 40;
+
+    private final PacManGame game;
+    private long drawnLevelLoadCount = -1;
+    private SpriteAtlas drawnSprites;
+
+    private int columnCount;
+    private int rowCount;
+    private int chunkColumns;
+    private Slot[] chunks = new Slot[0]; // by chunk index (chunkRow * chunkColumns + chunkCol); null = not cached
+    private Slot[] slots = new Slot[0];
+    private int slotCount;
+    private long frame;
+
+    BoardLayer(PacManGame game) {
+        this.game = game;
+    }
+
+    /**
+     * Draws the chunks under an {@code areaWidth} x {@code areaHeight} area at (areaX, areaY) of a view whose top-left
+     * corner is board pixel (viewX, viewY). The area is in view pixels; it is the whole view unless only part of it
+     * is being redrawn.
+     */
+    void draw(Graphics g, SpriteAtlas sprites, int viewX, int viewY,
+            int areaX, int areaY, int areaWidth, int areaHeight) {
+        if (game.getLevelLoadCount() != drawnLevelLoadCount || sprites != drawnSprites) {
+            reset(sprites);
+        }
+        frame++;
+
+        int left = viewX + areaX;
+        int top = viewY + areaY;
+        int firstCol = Math.max(0, left / CHUNK_SIZE);
+        int firstRow = Math.max(0, top / CHUNK_SIZE);
+        int lastCol = Math.min(chunkColumns - 1, (left + areaWidth - 1) / CHUNK_SIZE);
+        int lastRow = Math.min(chunks.length / chunkColumns - 1, (top + areaHeight - 1) / CHUNK_SIZE);
+        ensureSlots((lastCol - firstCol + 1) * (lastRow - firstRow + 1));
+
+        GraphicsConfiguration config = ((Graphics2D) g).getDeviceConfiguration();
+        // Offscreen targets (e.g. a BufferedImage) draw the chunk images directly: video memory would not help.
+        boolean toScreen = config.getDevice().getType() != GraphicsDevice.TYPE_IMAGE_BUFFER;
+        for (int chunkRow = firstRow; chunkRow <= lastRow; chunkRow++) {
+            for (int chunkCol = firstCol; chunkCol <= lastCol; chunkCol++) {
+                Slot slot = chunk(chunkRow * chunkColumns + chunkCol);
+                slot.lastUsedFrame = frame;
+                if (slot.drawnPelletCount != game.getPelletsRemaining()) {
+                    erasePellets(slot);
+                }
+                int x = slot.x - viewX;
+                int y = slot.y - viewY;
+                if (toScreen) {
+                    slot.drawToScreen(g, config, x, y);
+                } else {
+                    g.drawImage(slot.image, x, y, x + slot.width, y + slot.height, 0, 0, slot.width, slot.height, null);
+                }
+            }
+        }
+    }
+
+    /** Forgets every cached chunk; the slots and their images are kept for reuse. */
+    private void reset(SpriteAtlas sprites) {
+        drawnLevelLoadCount = game.getLevelLoadCount();
+        drawnSprites = sprites;
+        columnCount = game.getColumnCount();
+        rowCount = game.getRowCount();
+        chunkColumns = (columnCount + CHUNK_TILES - 1) / CHUNK_TILES;
+        int chunkCount = chunkColumns * ((rowCount + CHUNK_TILES - 1) / CHUNK_TILES);
+        if (chunks.length != chunkCount) {
+            chunks = new Slot[chunkCount];
+        } else {
+            Arrays.fill(chunks, null);
+        }
+        for (int i = 0; i < slotCount; i++) {
+            slots[i].chunk = -1;
+        }
+    }
+
+    private void ensureSlots(int visibleChunks) {
+        int needed = Math.max(MIN_SLOTS, 2 * visibleChunks);
+        if (slots.length < needed) {
+            slots = Arrays.copyOf(slots, needed);
+        }
+    }
+
+    private Slot chunk(int chunk) {
+        Slot slot = chunks[chunk];
+        if (slot != null) {
+            return slot;
+        }
+
+        if (slotCount < slots.length) {
+            slot = new Slot();
+            slots[slotCount++] = slot;
+        } else {
+            slot = slots[0];
+            for (int i = 1; i < slotCount; i++) {
+                if (slots[i].lastUsedFrame < slot.lastUsedFrame) {
+                    slot = slots[i];
+                }
+            }
+            if (slot.chunk >= 0) {
+                chunks[slot.chunk] = null;
+            }
+        }
+        chunks[chunk] = slot;
+        build(slot, chunk);
+        return slot;
+    }
+
+    private void build(Slot slot, int chunk) {
+        int firstCol = (chunk % chunkColumns) * CHUNK_TILES;
+        int firstRow = (chunk / chunkColumns) * CHUNK_TILES;
+        int lastCol = Math.min(columnCount, firstCol + CHUNK_TILES) - 1;
+        int lastRow = Math.min(rowCount, firstRow + CHUNK_TILES) - 1;
+        slot.chunk = chunk;
+        slot.x = firstCol * TILE_SIZE;
+        slot.y = firstRow * TILE_SIZE;
+        slot.width = (lastCol - firstCol + 1) * TILE_SIZE;
+        slot.height = (lastRow - firstRow + 1) * TILE_SIZE;
+        slot.drawnPellets.clear();
+        slot.drawnPowerPellets.clear();
+
+        Graphics2D g = slot.image.createGraphics();
+        try {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, CHUNK_SIZE, CHUNK_SIZE);
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    int x = (col - firstCol) * TILE_SIZE;
+                    int y = (row - firstRow) * TILE_SIZE;
+                    int tile = row * columnCount + col;
+                    int local = localTile(col, row);
+                    if (game.isWall(col, row)) {
+                        drawnSprites.draw(g, Sprite.WALL, x, y);
+                    } else if (game.hasPellet(tile)) {
+                        g.setColor(Color.WHITE);
+                        g.fillRect(x + PELLET_OFFSET, y + PELLET_OFFSET, PELLET_SIZE, PELLET_SIZE);
+                        slot.drawnPellets.set(local);
+                    } else if (game.hasPowerPellet(tile)) {
+                        drawnSprites.draw(g, Sprite.POWER_PELLET, x, y);
+                        slot.drawnPowerPellets.set(local);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+
+        slot.drawnPelletCount = game.getPelletsRemaining();
+        slot.screenCopyStale = true;
+    }
+
+    private void erasePellets(Slot slot) {
+        erasePellets(slot, slot.drawnPellets, false);
+        erasePellets(slot, slot.drawnPowerPellets, true);
+        slot.drawnPelletCount = game.getPelletsRemaining();
+    }
+
+    private void erasePellets(Slot slot, BitSet drawn, boolean power) {
+        int firstCol = slot.x / TILE_SIZE;
+        int firstRow = slot.y / TILE_SIZE;
+        Graphics2D g = null;
+        try {
+            for (int local = drawn.nextSetBit(0); local >= 0; local = drawn.nextSetBit(local + 1)) {
+                int col = firstCol + local % CHUNK_TILES;
+                int row = firstRow + local / CHUNK_TILES;
+                int tile = row * columnCount + col;
+                boolean present = power ? game.hasPowerPellet(tile) : game.hasPellet(tile);
+                if (present) {
+                    continue;
+                }
+                if (g == null) {
+                    g = slot.image.createGraphics();
+                    g.setColor(Color.BLACK);
+                }
+                g.fillRect((col - firstCol) * TILE_SIZE, (row - firstRow) * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+                drawn.clear(local);
+                slot.screenCopyStale = true;
+            }
+        } finally {
+            if (g != null) {
+                g.dispose();
+            }
+        }
+    }
+
+    private static int localTile(int col, int row) {
+        return (row % CHUNK_TILES) * CHUNK_TILES + (col % CHUNK_TILES);
+    }
+
+    /** One cached chunk image. Images are always full chunk size; chunks on the board edge use the top-left part. */
+    private static final class Slot {
+        final BufferedImage image = new BufferedImage(CHUNK_SIZE, CHUNK_SIZE, BufferedImage.TYPE_INT_RGB);
+        final BitSet drawnPellets = new BitSet(CHUNK_TILES * CHUNK_TILES);
+        final BitSet drawnPowerPellets = new BitSet(CHUNK_TILES * CHUNK_TILES);
+        int chunk = -1;
+        int x;
+        int y;
+        int width;
+        int height;
+        int drawnPelletCount;
+        long lastUsedFrame;
+
+        VolatileImage screenCopy;
+        boolean screenCopyStale = true;
+
+        void drawToScreen(Graphics g, GraphicsConfiguration config, int x, int y) {
+            do {
+                if (screenCopy == null || screenCopy.validate(config) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    if (screenCopy != null) {
+                        screenCopy.flush();
+                    }
+                    screenCopy = config.createCompatibleVolatileImage(CHUNK_SIZE, CHUNK_SIZE);
+                    screenCopyStale = true;
+                    screenCopy.validate(config);
+                } else if (screenCopy.validate(config) == VolatileImage.IMAGE_RESTORED) {
+                    screenCopyStale = true;
+                }
+
+                if (screenCopyStale) {
+                    Graphics2D copy = screenCopy.createGraphics();
+                    try {
+                        copy.drawImage(image, 0, 0, null);
+                    } finally {
+                        copy.dispose();
+                    }
+                    screenCopyStale = false;
+                }
+
+                g.drawImage(screenCopy, x, y, x + width, y + height, 0, 0, width, height, null);
+            } while (screenCopy.contentsLost());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package pacman.render;
+
+/**
+ * Top-left corner of the visible part of the board, in board pixels. It keeps a point (Pac-Man) centred while
+ * staying inside the board; along an axis where the whole board fits, it stays at 0.
+ */
+final class Camera {
+    private int x;
+    private int y;
+    private int viewWidth;
+    private int viewHeight;
+
+    void follow(int centerX, int centerY, int viewWidth, int viewHeight, int boardWidth, int boardHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        x = clamp(centerX - viewWidth / 2, boardWidth - viewWidth);
+        y = clamp(centerY - viewHeight / 2, boardHeight - viewHeight);
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    int getX() {
+        return x;
+    }
+
+    int getY() {
+        return y;
+    }
+
+    int getViewWidth() {
+        return viewWidth;
+    }
+
+    int getViewHeight() {
+        return viewHeight;
+    }
+
+    /** True when the board rectangle overlaps the view. */
+    boolean sees(int left, int top, int width, int height) {
+        return left < x + viewWidth && left + width > x && top < y + viewHeight && top + height > y;
+    }
+}
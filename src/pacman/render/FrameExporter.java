@@ -0,0 +1,358 @@
+package pacman.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import pacman.batch.BatchRunner;
+import pacman.batch.InputPolicy;
+import pacman.game.GameState;
+import pacman.game.PacManGame;
+import pacman.level.BuiltInLevels;
+import pacman.level.Level;
+import pacman.level.LevelPack;
+import pacman.level.LevelSource;
+import pacman.replay.Replay;
+import pacman.replay.ReplayPlayer;
+
+/**
+ * Writes rendered frames to numbered PNG files without a window. Frames are drawn into a fixed pool of offscreen
+ * images and handed to a fixed set of encoder threads; an image returns to the pool once its file is written.
+ * {@link #acquire()} blocks while every image is waiting to be encoded, so the producer can never run ahead of the
+ * encoders by more than the pool, and memory stays bounded however long the export.
+ *
+ * Use from one producer thread: {@link #acquire()} an image, draw into it, {@link #submit} it, and finally
+ * {@link #close()}, which waits for the last files.
+ */
+public final class FrameExporter implements Closeable {
+    private static final Frame END = new Frame(null, null);
+
+    private final int width;
+    private final int height;
+    private final BlockingQueue<BufferedImage> freeImages;
+    private final BlockingQueue<Frame> frames;
+    private final Thread[] encoders;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private boolean closed;
+
+    /** @param bufferedFrames images in the pool; at least {@code encoderThreads} keeps every encoder busy */
+    public FrameExporter(int width, int height, int encoderThreads, int bufferedFrames) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Frame size must be positive");
+        }
+        if (encoderThreads < 1 || bufferedFrames < 1) {
+            throw new IllegalArgumentException("encoderThreads and bufferedFrames must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.freeImages = new ArrayBlockingQueue<>(bufferedFrames);
+        for (int i = 0; i < bufferedFrames; i++) {
+            freeImages.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        }
+        // Never full: at most every image is queued, plus one END per encoder.
+        this.frames = new ArrayBlockingQueue<>(bufferedFrames + encoderThreads);
+        this.encoders = new Thread[encoderThreads];
+        for (int i = 0; i < encoderThreads; i++) {
+            encoders[i] = new Thread(this::encode, "pacman-png-" + i);
+            encoders[i].setDaemon(true);
+            encoders[i].start();
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * A pooled image to draw the next frame into, waiting for one to be free.
+     *
+     * @throws IOException if writing an earlier frame failed
+     */
+    public BufferedImage acquire() throws IOException, InterruptedException {
+        checkOpen();
+        BufferedImage image = freeImages.take();
+        try {
+            checkFailure();
+        } catch (IOException e) {
+            freeImages.add(image);
+            throw e;
+        }
+        return image;
+    }
+
+    /** Queues an image from {@link #acquire()} to be written to {@code file}; the image must not be touched again. */
+    public void submit(BufferedImage image, Path file) throws IOException, InterruptedException {
+        checkOpen();
+        checkFailure();
+        frames.put(new Frame(image, file));
+    }
+
+    /** Waits for every submitted frame to be written and stops the encoders. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = false;
+        for (int i = 0; i < encoders.length; i++) {
+            frames.add(END);
+        }
+        for (Thread encoder : encoders) {
+            while (encoder.isAlive()) {
+                try {
+                    encoder.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    private void encode() {
+        // One writer per thread, reused for every frame; output is buffered in memory rather than in a cache file.
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        ImageWriter writer = writers.hasNext() ? writers.next() : null;
+        try {
+            while (true) {
+                Frame frame;
+                try {
+                    frame = frames.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (frame == END) {
+                    return;
+                }
+                try {
+                    // After a failure the remaining frames are only recycled, so the producer fails fast.
+                    if (failure.get() == null) {
+                        write(writer, frame);
+                    }
+                } catch (IOException e) {
+                    failure.compareAndSet(null, new IOException("Could not write " + frame.file, e));
+                } finally {
+                    freeImages.add(frame.image);
+                }
+            }
+        } finally {
+            if (writer != null) {
+                writer.dispose();
+            }
+        }
+    }
+
+    private static void write(ImageWriter writer, Frame frame) throws IOException {
+        if (writer == null) {
+            throw new IOException("No PNG writer available");
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(frame.file));
+             ImageOutputStream imageOut = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            writer.write(frame.image);
+        } finally {
+            writer.setOutput(null);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Exporter is closed");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure.get();
+        if (e != null) {
+            // A fresh exception each time: the first failure is reported by every later call, including close().
+            throw new IOException(e.getMessage(), e.getCause());
+        }
+    }
+
+    private static final class Frame {
+        final BufferedImage image;
+        final Path file;
+
+        Frame(BufferedImage image, Path file) {
+            this.image = image;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Renders sessions to {@code out/<session>/frame-000000.png}, one frame per tick (or every {@code k}th). Sessions
+     * are recorded replays, or with no {@code --replay} one live game of the given policy.
+     *
+     * Usage: {@code FrameExporter --out dir [--replay file[,file...]] [--seed s] [--policy p] [--max-ticks m]
+     * [--levels pack] [--every k] [--size WxH] [--threads t] [--buffered n]}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path out = null;
+        String replays = null;
+        long seed = 1;
+        String policySpec = "random";
+        long maxTicks = 50_000;
+        String levelPack = null;
+        int every = 1;
+        String size = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int buffered = 0;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--out") && i + 1 < args.length) {
+                out = Paths.get(args[++i]);
+            } else if (arg.equals("--replay") && i + 1 < args.length) {
+                replays = args[++i];
+            } else if (arg.equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("--policy") && i + 1 < args.length) {
+                policySpec = args[++i];
+            } else if (arg.equals("--max-ticks") && i + 1 < args.length) {
+                maxTicks = Long.parseLong(args[++i]);
+            } else if (arg.equals("--levels") && i + 1 < args.length) {
+                levelPack = args[++i];
+            } else if (arg.equals("--every") && i + 1 < args.length) {
+                every = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--size") && i + 1 < args.length) {
+                size = args[++i];
+            } else if (arg.equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--buffered") && i + 1 < args.length) {
+                buffered = Integer.parseInt(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("--out is required");
+        }
+        if (every < 1) {
+            throw new IllegalArgumentException("--every must be positive");
+        }
+
+        LevelPack pack = levelPack != null ? LevelPack.open(Paths.get(levelPack)) : null;
+        LevelSource levels = pack != null ? pack : BuiltInLevels.INSTANCE;
+        try {
+            List<String> names = new ArrayList<>();
+            List<ReplayPlayer> players = new ArrayList<>();
+            if (replays != null) {
+                for (String file : replays.split(",")) {
+                    Path path = Paths.get(file);
+                    String name = path.getFileName().toString();
+                    names.add(name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name);
+                    players.add(new ReplayPlayer(Replay.load(path), levels));
+                }
+            }
+
+            int width;
+            int height;
+            if (size != null) {
+                String[] parts = size.split("x");
+                try {
+                    width = parts.length == 2 ? Integer.parseInt(parts[0]) : 0;
+                    height = parts.length == 2 ? Integer.parseInt(parts[1]) : 0;
+                } catch (NumberFormatException e) {
+                    width = 0;
+                    height = 0;
+                }
+                if (width <= 0 || height <= 0) {
+                    throw new IllegalArgumentException("--size must be WxH");
+                }
+            } else {
+                Level first = levels.getLevel(0);
+                width = first.getColumns() * PacManGame.TILE_SIZE;
+                height = first.getRows() * PacManGame.TILE_SIZE;
+            }
+
+            Assets assets = Assets.load(FrameExporter.class);
+            long frames = 0;
+            long start = System.nanoTime();
+            try (FrameExporter exporter = new FrameExporter(width, height, threads, buffered > 0 ? buffered : 2 * threads)) {
+                if (players.isEmpty()) {
+                    long tickLimit = maxTicks;
+                    InputPolicy.Factory factory = BatchRunner.parsePolicy(policySpec);
+                    PacManGame game = new PacManGame(factory.gameSeed(0, seed), levels);
+                    InputPolicy policy = factory.create(0, seed);
+                    frames += export(exporter, assets, game, out.resolve("game-" + seed), every, () -> {
+                        policy.beforeTick(game);
+                        game.tick();
+                        GameState state = game.getGameState();
+                        return state != GameState.GAME_OVER && state != GameState.WIN && game.getTickCount() < tickLimit;
+                    });
+                } else {
+                    for (int i = 0; i < players.size(); i++) {
+                        ReplayPlayer player = players.get(i);
+                        frames += export(exporter, assets, player.getGame(), out.resolve(names.get(i)), every, () -> {
+                            player.step();
+                            return !player.isFinished();
+                        });
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d frames of %dx%d in %.2fs on %d encoder threads (%.0f frames/s)%n",
+                    frames, width, height, seconds, threads, frames / seconds);
+        } finally {
+            if (pack != null) {
+                pack.close();
+            }
+        }
+    }
+
+    /** Advances the session one tick; false once it has ended. */
+    private interface Session {
+        boolean step();
+    }
+
+    private static long export(FrameExporter exporter, Assets assets, PacManGame game, Path dir, int every,
+            Session session) throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        PacManRenderer renderer = new PacManRenderer(game, assets);
+        long frames = 0;
+        boolean running = true;
+        while (true) {
+            if (game.getTickCount() % every == 0 || !running) {
+                BufferedImage image = exporter.acquire();
+                Graphics2D g = image.createGraphics();
+                try {
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, exporter.getWidth(), exporter.getHeight());
+                    renderer.draw(g, 1f, exporter.getWidth(), exporter.getHeight());
+                } finally {
+                    g.dispose();
+                }
+                exporter.submit(image, dir.resolve(String.format("frame-%06d.png", frames)));
+                frames++;
+            }
+            if (!running) {
+                return frames;
+            }
+            running = session.step();
+        }
+    }
+}
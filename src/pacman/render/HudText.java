@@ -0,0 +1,147 @@
+package pacman.render;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+
+import pacman.game.GameState;
+
+/**
+ * HUD line and centered state message, pre-rendered into small images. Text is laid out again only when the numbers,
+ * the state or the font render context change; steady-state frames are plain unscaled blits, so drawing the HUD
+ * builds no strings, measures nothing and allocates nothing.
+ */
+final class HudText {
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 28);
+    private static final int HUD_BASELINE = 20;
+    private static final int HUD_MARGIN = 10;
+
+    private FontRenderContext context;
+
+    private int score = -1;
+    private final TextImage scoreText = new TextImage();
+
+    private int level = -1;
+    private int levelCount = -1;
+    private final TextImage levelText = new TextImage();
+
+    private int lives = -1;
+    private final TextImage livesText = new TextImage();
+
+    private GameState messageState;
+    private final TextImage messageText = new TextImage();
+
+    void drawHud(Graphics2D g, int viewWidth, int score, int level, int levelCount, int lives) {
+        checkContext(g);
+
+        if (score != this.score || !scoreText.isValid()) {
+            this.score = score;
+            scoreText.layout(g, HUD_FONT, context, "Score: " + score);
+        }
+        if (level != this.level || levelCount != this.levelCount || !levelText.isValid()) {
+            this.level = level;
+            this.levelCount = levelCount;
+            levelText.layout(g, HUD_FONT, context, "Level: " + level + "/" + levelCount);
+        }
+        if (lives != this.lives || !livesText.isValid()) {
+            this.lives = lives;
+            livesText.layout(g, HUD_FONT, context, "Lives: " + lives);
+        }
+
+        scoreText.draw(g, HUD_MARGIN, HUD_BASELINE);
+        levelText.draw(g, (viewWidth - levelText.advance) / 2, HUD_BASELINE);
+        livesText.draw(g, viewWidth - livesText.advance - HUD_MARGIN, HUD_BASELINE);
+    }
+
+    /** Draws the centered message for {@code state}, if it has one. */
+    void drawMessage(Graphics2D g, int viewWidth, int viewHeight, GameState state) {
+        String text = messageFor(state);
+        if (text == null) {
+            return;
+        }
+        checkContext(g);
+
+        if (state != messageState || !messageText.isValid()) {
+            messageState = state;
+            messageText.layout(g, MESSAGE_FONT, context, text);
+        }
+        int textX = (viewWidth - messageText.advance) / 2;
+        int textY = (viewHeight - messageText.lineHeight) / 2 + messageText.ascent;
+        messageText.draw(g, textX, textY);
+    }
+
+    private static String messageFor(GameState state) {
+        if (state == GameState.PAUSED) {
+            return "Paused (P to resume)";
+        }
+        if (state == GameState.GAME_OVER) {
+            return "Game Over (Enter to restart)";
+        }
+        if (state == GameState.WIN) {
+            return "You Win! (Enter to restart)";
+        }
+        return null;
+    }
+
+    private void checkContext(Graphics2D g) {
+        FontRenderContext current = g.getFontRenderContext();
+        if (!current.equals(context)) {
+            // Different transform or hints (e.g. another screen): every cached layout is stale.
+            context = current;
+            scoreText.invalidate();
+            levelText.invalidate();
+            livesText.invalidate();
+            messageText.invalidate();
+        }
+    }
+
+    /** One line of white text rendered into a tight ARGB image, plus the metrics needed to position it. */
+    private static final class TextImage {
+        private BufferedImage image;
+        private int offsetX;
+        private int offsetY;
+        int advance;
+        int ascent;
+        int lineHeight;
+
+        boolean isValid() {
+            return image != null;
+        }
+
+        void invalidate() {
+            image = null;
+        }
+
+        void layout(Graphics2D target, Font font, FontRenderContext context, String text) {
+            FontMetrics fontMetrics = target.getFontMetrics(font);
+            advance = fontMetrics.stringWidth(text);
+            ascent = fontMetrics.getAscent();
+            lineHeight = fontMetrics.getHeight();
+
+            GlyphVector glyphs = font.createGlyphVector(context, text);
+            Rectangle bounds = glyphs.getPixelBounds(context, 0, 0);
+            offsetX = bounds.x;
+            offsetY = bounds.y;
+            image = new BufferedImage(Math.max(1, bounds.width), Math.max(1, bounds.height), BufferedImage.TYPE_INT_ARGB);
+
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setColor(Color.WHITE);
+                g.drawGlyphVector(glyphs, -bounds.x, -bounds.y);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        /** Draws with the text baseline starting at ({@code x}, {@code baseline}). */
+        void draw(Graphics2D g, int x, int baseline) {
+            g.drawImage(image, x + offsetX, baseline + offsetY, null);
+        }
+    }
+}
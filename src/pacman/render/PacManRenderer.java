@@ -0,0 +1,244 @@
+package pacman.render;
+
+import java.awt.*;
+import java.util.Objects;
+
+import pacman.game.Direction;
+import pacman.game.GameState;
+import pacman.game.GhostType;
+import pacman.game.Ghosts;
+import pacman.game.PacManGame;
+
+import static pacman.game.PacManGame.TILE_SIZE;
+
+/**
+ * Swing/AWT view of a {@link PacManGame}. Reads the simulation state and never mutates it.
+ */
+public class PacManRenderer {
+    /** Height of the score/level/lives line at the top of the view. */
+    public static final int HUD_HEIGHT = 28;
+
+    private static final int DEATH_MOUTH_CLOSE_TICKS = 40;
+
+    private final PacManGame game;
+    private final Assets assets;
+    private final BoardLayer boardLayer;
+    private final HudText hudText = new HudText();
+    private SpriteAtlas sprites;
+    private final Camera camera = new Camera();
+    private int[] visibleGhosts = new int[0];
+    // Part of the view the current draw call touches, in view pixels.
+    private final Rectangle area = new Rectangle();
+
+    public PacManRenderer(PacManGame game, Assets assets) {
+        this.game = Objects.requireNonNull(game, "game");
+        this.assets = Objects.requireNonNull(assets, "assets");
+        this.boardLayer = new BoardLayer(game);
+    }
+
+    public void draw(Graphics g) {
+        draw(g, 1f);
+    }
+
+    /**
+     * Draws the board with actors placed {@code alpha} (0..1) of the way from their position at the start of the
+     * last tick to their current one.
+     */
+    public void draw(Graphics g, float alpha) {
+        draw(g, alpha, game.getBoardWidth(), game.getBoardHeight());
+    }
+
+    /**
+     * Same as {@link #draw(Graphics, float)}, showing only a {@code viewWidth} x {@code viewHeight} window of the
+     * board that scrolls to keep Pac-Man centred. Only the board chunks and actors inside the window, and inside the
+     * clip if {@code g} has one, are drawn.
+     */
+    public void draw(Graphics g, float alpha, int viewWidth, int viewHeight) {
+        SpriteAtlas sprites = sprites((Graphics2D) g);
+        scroll(alpha, viewWidth, viewHeight);
+        area.setBounds(0, 0, viewWidth, viewHeight);
+        g.getClipBounds(area); // left as is when there is no clip
+        int left = Math.max(0, area.x);
+        int top = Math.max(0, area.y);
+        int right = Math.min(viewWidth, area.x + area.width);
+        int bottom = Math.min(viewHeight, area.y + area.height);
+        if (right <= left || bottom <= top) {
+            return;
+        }
+        area.setBounds(left, top, right - left, bottom - top);
+
+        PacManGame.Player pacman = game.getPacman();
+        int pacmanX = interpolate(pacman.getPreviousX(), pacman.getX(), pacman.getWidth(), alpha);
+        int pacmanY = interpolate(pacman.getPreviousY(), pacman.getY(), pacman.getHeight(), alpha);
+        boardLayer.draw(g, sprites, camera.getX(), camera.getY(), area.x, area.y, area.width, area.height);
+        if (game.getGameState() != GameState.DYING) {
+            sprites.draw(g, pacmanSprite(pacman.getDirection()), pacmanX - camera.getX(), pacmanY - camera.getY());
+        }
+        drawGhosts(g, sprites, alpha);
+        if (game.getGameState() == GameState.DYING) {
+            drawDeathAnimation(g);
+        }
+        drawHud(g);
+        drawOverlay(g);
+    }
+
+    /**
+     * Points the view at where {@link #draw(Graphics, float, int, int)} with the same arguments would, and returns
+     * true if that differs from where the previous call left it. A view that redraws only changed regions must
+     * redraw everything after a scroll.
+     */
+    public boolean scroll(float alpha, int viewWidth, int viewHeight) {
+        int oldX = camera.getX();
+        int oldY = camera.getY();
+        PacManGame.Player pacman = game.getPacman();
+        int pacmanX = interpolate(pacman.getPreviousX(), pacman.getX(), pacman.getWidth(), alpha);
+        int pacmanY = interpolate(pacman.getPreviousY(), pacman.getY(), pacman.getHeight(), alpha);
+        camera.follow(pacmanX + pacman.getWidth() / 2, pacmanY + pacman.getHeight() / 2,
+                viewWidth, viewHeight, game.getBoardWidth(), game.getBoardHeight());
+        return camera.getX() != oldX || camera.getY() != oldY;
+    }
+
+    /** Board x of the view's left edge, as of the last {@link #scroll} or draw. */
+    public int getViewX() {
+        return camera.getX();
+    }
+
+    public int getViewY() {
+        return camera.getY();
+    }
+
+    /** The atlas for the target's configuration, rebuilt when the target or the tile size changes. */
+    private SpriteAtlas sprites(Graphics2D g) {
+        GraphicsConfiguration config = g.getDeviceConfiguration();
+        if (sprites == null || !sprites.matches(config, TILE_SIZE)) {
+            sprites = SpriteAtlas.create(assets, config, TILE_SIZE);
+        }
+        return sprites;
+    }
+
+    private static int interpolate(int previous, int current, int size, float alpha) {
+        int delta = current - previous;
+        if (delta > size || delta < -size) {
+            // Wrapped through a tunnel or respawned: sliding across the board would look wrong.
+            return current;
+        }
+        return previous + Math.round(delta * alpha);
+    }
+
+    private Sprite pacmanSprite(Direction direction) {
+        if (direction == Direction.UP) {
+            return Sprite.PACMAN_UP;
+        }
+        if (direction == Direction.DOWN) {
+            return Sprite.PACMAN_DOWN;
+        }
+        if (direction == Direction.LEFT) {
+            return Sprite.PACMAN_LEFT;
+        }
+        return Sprite.PACMAN_RIGHT;
+    }
+
+    private void drawGhosts(Graphics g, SpriteAtlas sprites, float alpha) {
+        Ghosts ghosts = game.getGhosts();
+        if (visibleGhosts.length < ghosts.size()) {
+            visibleGhosts = new int[ghosts.size()];
+        }
+        // A ghost is drawn less than its own size from where it is now, so look that far beyond the drawn area.
+        int visible = ghosts.findOverlapping(camera.getX() + area.x - Ghosts.SIZE, camera.getY() + area.y - Ghosts.SIZE,
+                area.width + 2 * Ghosts.SIZE, area.height + 2 * Ghosts.SIZE, visibleGhosts);
+        for (int i = 0; i < visible; i++) {
+            drawGhost(g, sprites, ghosts, visibleGhosts[i], alpha);
+        }
+    }
+
+    private void drawGhost(Graphics g, SpriteAtlas sprites, Ghosts ghosts, int ghost, float alpha) {
+        int x = interpolate(ghosts.getPreviousX(ghost), ghosts.getX(ghost), Ghosts.SIZE, alpha);
+        int y = interpolate(ghosts.getPreviousY(ghost), ghosts.getY(ghost), Ghosts.SIZE, alpha);
+        if (!camera.sees(x, y, Ghosts.SIZE, Ghosts.SIZE)) {
+            return;
+        }
+        Sprite sprite = ghosts.isFrightened(ghost) ? Sprite.SCARED_GHOST : ghostSprite(ghosts.getType(ghost));
+        sprites.draw(g, sprite, x - camera.getX(), y - camera.getY());
+    }
+
+    private Sprite ghostSprite(GhostType type) {
+        switch (type) {
+            case BLUE:
+                return Sprite.BLUE_GHOST;
+            case ORANGE:
+                return Sprite.ORANGE_GHOST;
+            case PINK:
+                return Sprite.PINK_GHOST;
+            default:
+                return Sprite.RED_GHOST;
+        }
+    }
+
+    private void drawDeathAnimation(Graphics g) {
+        int deathDurationTicks = game.getDeathDurationTicks();
+        int elapsedTicks = game.getDeathTicksElapsed();
+        if (elapsedTicks >= deathDurationTicks) {
+            return;
+        }
+
+        float mouthOpenDegrees = 90f;
+        float scale = 1f;
+
+        if (elapsedTicks < DEATH_MOUTH_CLOSE_TICKS) {
+            float t = elapsedTicks / (float) DEATH_MOUTH_CLOSE_TICKS;
+            mouthOpenDegrees = mouthOpenDegrees * (1f - t);
+        } else {
+            mouthOpenDegrees = 0f;
+            int shrinkElapsed = elapsedTicks - DEATH_MOUTH_CLOSE_TICKS;
+            int shrinkTicks = Math.max(1, deathDurationTicks - DEATH_MOUTH_CLOSE_TICKS);
+            float t = shrinkElapsed / (float) shrinkTicks;
+            scale = Math.max(0f, 1f - t);
+        }
+
+        int size = Math.round(TILE_SIZE * scale);
+        if (size <= 0) {
+            return;
+        }
+
+        PacManGame.Player pacman = game.getPacman();
+        int centerX = pacman.getX() + (pacman.getWidth() / 2);
+        int centerY = pacman.getY() + (pacman.getHeight() / 2);
+        int drawX = centerX - (size / 2) - camera.getX();
+        int drawY = centerY - (size / 2) - camera.getY();
+
+        int mouthAngle = Math.max(0, Math.min(359, Math.round(mouthOpenDegrees)));
+        int startAngle = directionToAngle(game.getDeathDirection()) + (mouthAngle / 2);
+        int extent = 360 - mouthAngle;
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(Color.YELLOW);
+            g2.fillArc(drawX, drawY, size, size, startAngle, extent);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private int directionToAngle(Direction direction) {
+        if (direction == Direction.UP) {
+            return 90;
+        }
+        if (direction == Direction.DOWN) {
+            return 270;
+        }
+        if (direction == Direction.LEFT) {
+            return 180;
+        }
+        return 0; // RIGHT
+    }
+
+    private void drawHud(Graphics g) {
+        hudText.drawHud((Graphics2D) g, camera.getViewWidth(),
+                game.getScore(), game.getLevelIndex() + 1, game.getLevelCount(), game.getLives());
+    }
+
+    private void drawOverlay(Graphics g) {
+        hudText.drawMessage((Graphics2D) g, camera.getViewWidth(), camera.getViewHeight(), game.getGameState());
+    }
+}
@@ -0,0 +1,22 @@
+package pacman.render;
+
+/** The images the renderer draws, in the order they are laid out in a {@link SpriteAtlas}. */
+enum Sprite {
+    WALL("wall.png"),
+    BLUE_GHOST("blueGhost.png"),
+    ORANGE_GHOST("orangeGhost.png"),
+    PINK_GHOST("pinkGhost.png"),
+    RED_GHOST("redGhost.png"),
+    SCARED_GHOST("scaredGhost.png"),
+    PACMAN_UP("pacmanUp.png"),
+    PACMAN_DOWN("pacmanDown.png"),
+    PACMAN_LEFT("pacmanLeft.png"),
+    PACMAN_RIGHT("pacmanRight.png"),
+    POWER_PELLET("powerFood.png");
+
+    final String filename;
+
+    Sprite(String filename) {
+        this.filename = filename;
+    }
+}
@@ -0,0 +1,51 @@
+package pacman.render;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Every {@link Sprite} scaled once to the tile size and packed side by side into one image created by the target's
+ * {@link GraphicsConfiguration}, so Java2D can keep it in video memory and each sprite is an unscaled blit of a
+ * sub-rectangle. An atlas is tied to one configuration and tile size; {@link #matches} tells the caller when to build
+ * a new one.
+ */
+final class SpriteAtlas {
+    private final GraphicsConfiguration config;
+    private final int tileSize;
+    private final BufferedImage sheet;
+
+    private SpriteAtlas(GraphicsConfiguration config, int tileSize, BufferedImage sheet) {
+        this.config = config;
+        this.tileSize = tileSize;
+        this.sheet = sheet;
+    }
+
+    static SpriteAtlas create(Assets assets, GraphicsConfiguration config, int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("tileSize must be positive: " + tileSize);
+        }
+        Sprite[] sprites = Sprite.values();
+        BufferedImage sheet = config.createCompatibleImage(sprites.length * tileSize, tileSize, Transparency.TRANSLUCENT);
+        Graphics2D g = sheet.createGraphics();
+        try {
+            for (Sprite sprite : sprites) {
+                g.drawImage(assets.image(sprite), sprite.ordinal() * tileSize, 0, tileSize, tileSize, null);
+            }
+        } finally {
+            g.dispose();
+        }
+        return new SpriteAtlas(config, tileSize, sheet);
+    }
+
+    boolean matches(GraphicsConfiguration config, int tileSize) {
+        return this.tileSize == tileSize && this.config.equals(config);
+    }
+
+    void draw(Graphics g, Sprite sprite, int x, int y) {
+        int sx = sprite.ordinal() * tileSize;
+        g.drawImage(sheet, x, y, x + tileSize, y + tileSize, sx, 0, sx + tileSize, tileSize, null);
+    }
+}
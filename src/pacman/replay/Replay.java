@@ -0,0 +1,149 @@
+package pacman.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import pacman.game.GameInput;
+
+/**
+ * A recorded session: the game seed, how many ticks it ran, and every input with the tick count it arrived at.
+ *
+ * Binary layout (big-endian): magic "PMRP", version byte, seed (8 bytes), tick length (varint),
+ * event count (varint), then per event the tick delta from the previous event (varint) and the input ordinal (1 byte).
+ * A typical event takes two or three bytes.
+ */
+public final class Replay {
+    private static final int MAGIC = 0x504D5250; // "PMRP"
+    // Bumped whenever the simulation changes so old recordings no longer play back the same (2: chase/scatter AI).
+    private static final int VERSION = 2;
+    // Every event takes at least a one-byte tick delta and an input byte.
+    private static final int MIN_EVENT_BYTES = 2;
+    // Over 70 hours of a new input every tick at 60 ticks per second; a larger count means a corrupt file.
+    private static final int MAX_EVENTS = 16 << 20;
+
+    private final long seed;
+    private final long length;
+    private final long[] ticks;
+    private final byte[] inputs;
+
+    Replay(long seed, long length, long[] ticks, byte[] inputs) {
+        if (ticks.length != inputs.length) {
+            throw new IllegalArgumentException("ticks and inputs must have the same length");
+        }
+        this.seed = seed;
+        this.length = length;
+        this.ticks = ticks;
+        this.inputs = inputs;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Number of ticks the recorded session ran for. */
+    public long getLength() {
+        return length;
+    }
+
+    public int getEventCount() {
+        return ticks.length;
+    }
+
+    public long getEventTick(int index) {
+        return ticks[index];
+    }
+
+    public GameInput getEventInput(int index) {
+        return GameInput.fromOrdinal(inputs[index]);
+    }
+
+    public void save(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(out);
+        }
+    }
+
+    public static Replay load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in, Files.size(path));
+        }
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(seed);
+        writeVarLong(data, length);
+        writeVarLong(data, ticks.length);
+
+        long previousTick = 0;
+        for (int i = 0; i < ticks.length; i++) {
+            writeVarLong(data, ticks[i] - previousTick);
+            data.writeByte(inputs[i]);
+            previousTick = ticks[i];
+        }
+        data.flush();
+    }
+
+    public static Replay read(InputStream in) throws IOException {
+        return read(in, Long.MAX_VALUE);
+    }
+
+    /** Reads a replay from {@code in}, which holds at most {@code maxBytes} bytes; bounds the event count by both. */
+    private static Replay read(InputStream in, long maxBytes) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+
+        long seed = data.readLong();
+        long length = readVarLong(data);
+        long count = readVarLong(data);
+        if (count < 0 || count > MAX_EVENTS || count > maxBytes / MIN_EVENT_BYTES) {
+            throw new IOException("Corrupt replay event count: " + count);
+        }
+
+        long[] ticks = new long[(int) count];
+        byte[] inputs = new byte[(int) count];
+        long tick = 0;
+        for (int i = 0; i < count; i++) {
+            tick += readVarLong(data);
+            ticks[i] = tick;
+            inputs[i] = data.readByte();
+            GameInput.fromOrdinal(inputs[i]); // reject unknown inputs up front rather than mid-playback
+        }
+        return new Replay(seed, length, ticks, inputs);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,99 @@
+package pacman.replay;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+import pacman.game.PacManGame;
+import pacman.level.BuiltInLevels;
+import pacman.level.LevelSource;
+
+/**
+ * Re-runs a {@link Replay} on a fresh {@link PacManGame}, either as fast as possible or at a multiple of real time.
+ */
+public final class ReplayPlayer {
+    private final Replay replay;
+    private final PacManGame game;
+    private int nextEvent = 0;
+
+    public ReplayPlayer(Replay replay) {
+        this(replay, BuiltInLevels.INSTANCE);
+    }
+
+    /** Plays {@code replay} on {@code levels}, which must be the levels it was recorded on. */
+    public ReplayPlayer(Replay replay, LevelSource levels) {
+        this.replay = Objects.requireNonNull(replay, "replay");
+        this.game = new PacManGame(replay.getSeed(), levels);
+    }
+
+    public PacManGame getGame() {
+        return game;
+    }
+
+    public boolean isFinished() {
+        return game.getTickCount() >= replay.getLength();
+    }
+
+    /** Feeds the inputs recorded for the current tick, then advances the game by one tick. */
+    public void step() {
+        if (isFinished()) {
+            return;
+        }
+        long tick = game.getTickCount();
+        while (nextEvent < replay.getEventCount() && replay.getEventTick(nextEvent) == tick) {
+            game.onInput(replay.getEventInput(nextEvent));
+            nextEvent++;
+        }
+        game.tick();
+    }
+
+    /** Runs the rest of the replay unthrottled. */
+    public void runToEnd() {
+        while (!isFinished()) {
+            step();
+        }
+    }
+
+    /**
+     * Runs the rest of the replay at {@code speed} times real time ({@link PacManGame#TICK_MS} per tick at 1.0).
+     * Non-positive or infinite speeds run unthrottled.
+     */
+    public void play(double speed) throws InterruptedException {
+        if (speed <= 0 || Double.isInfinite(speed)) {
+            runToEnd();
+            return;
+        }
+
+        long nanosPerTick = (long) (PacManGame.TICK_MS * 1_000_000L / speed);
+        long deadline = System.nanoTime();
+        while (!isFinished()) {
+            step();
+            deadline += nanosPerTick;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+            }
+        }
+    }
+
+    /** Usage: {@code ReplayPlayer <replay-file> [speed]}. Prints the final result of the replayed session. */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayPlayer <replay-file> [speed]");
+            System.exit(2);
+        }
+
+        ReplayPlayer player = new ReplayPlayer(Replay.load(Paths.get(args[0])));
+        long start = System.nanoTime();
+        player.play(args.length > 1 ? Double.parseDouble(args[1]) : 0);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        PacManGame game = player.getGame();
+        System.out.println("ticks=" + game.getTickCount()
+                + " state=" + game.getGameState()
+                + " score=" + game.getScore()
+                + " level=" + (game.getLevelIndex() + 1)
+                + " lives=" + game.getLives()
+                + " elapsedMs=" + elapsedMs);
+    }
+}
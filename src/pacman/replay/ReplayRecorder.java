@@ -0,0 +1,48 @@
+package pacman.replay;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import pacman.game.GameInput;
+import pacman.game.PacManGame;
+
+/**
+ * Records every input a game receives. Attach it before the first tick and call {@link #finish()} when the
+ * session ends.
+ */
+public final class ReplayRecorder implements PacManGame.InputListener {
+    private final PacManGame game;
+    private long[] ticks = new long[64];
+    private byte[] inputs = new byte[64];
+    private int size = 0;
+
+    private ReplayRecorder(PacManGame game) {
+        this.game = game;
+    }
+
+    public static ReplayRecorder attach(PacManGame game) {
+        Objects.requireNonNull(game, "game");
+        if (game.getTickCount() != 0) {
+            throw new IllegalStateException("Recording must start before the first tick");
+        }
+        ReplayRecorder recorder = new ReplayRecorder(game);
+        game.setInputListener(recorder);
+        return recorder;
+    }
+
+    @Override
+    public void onInput(long tick, GameInput input) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            inputs = Arrays.copyOf(inputs, size * 2);
+        }
+        ticks[size] = tick;
+        inputs[size] = (byte) input.ordinal();
+        size++;
+    }
+
+    /** Snapshot of everything recorded so far; recording continues if the game keeps running. */
+    public Replay finish() {
+        return new Replay(game.getSeed(), game.getTickCount(), Arrays.copyOf(ticks, size), Arrays.copyOf(inputs, size));
+    }
+}
@@ -0,0 +1,218 @@
+package pacman.rl;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import pacman.game.GameInput;
+import pacman.game.GameState;
+import pacman.game.Ghosts;
+import pacman.game.PacManGame;
+import pacman.level.BuiltInLevels;
+import pacman.level.Level;
+import pacman.level.LevelSource;
+
+import static pacman.game.PacManGame.TILE_SIZE;
+
+/**
+ * A gym-style training environment around one headless {@link PacManGame}. {@link #reset(long)} starts an episode,
+ * {@link #step(int)} applies an action and advances the game, and {@link #observe(ByteBuffer, int)} writes what the
+ * agent sees into a caller-supplied buffer. Stepping and observing allocate nothing, and a reset only a few small
+ * objects.
+ *
+ * Actions are {@link #NOOP} (keep going), {@link #UP}, {@link #DOWN}, {@link #LEFT} and {@link #RIGHT}. The reward
+ * of a step is the points scored during it; lives are on {@link #getGame()}. Pac-Man's death animation is skipped
+ * inside the step that caused it, since no action can change it.
+ *
+ * The observation is {@link #PLANES} byte planes of {@code columns * rows} tiles each, row-major, holding 1 where
+ * the plane's feature is present and 0 elsewhere. Actors count on the tile under their centre. The shape is that of
+ * the first level; smaller levels are padded with walls and larger ones are rejected.
+ *
+ * An environment is used by one thread at a time.
+ */
+public final class PacManEnv {
+    public static final int NOOP = 0;
+    public static final int UP = 1;
+    public static final int DOWN = 2;
+    public static final int LEFT = 3;
+    public static final int RIGHT = 4;
+    public static final int ACTION_COUNT = 5;
+
+    public static final int PLANE_WALLS = 0;
+    public static final int PLANE_PELLETS = 1;
+    public static final int PLANE_POWER_PELLETS = 2;
+    public static final int PLANE_GHOSTS = 3;
+    public static final int PLANE_FRIGHTENED_GHOSTS = 4;
+    public static final int PLANE_PACMAN = 5;
+    public static final int PLANES = 6;
+
+    private static final GameInput[] ACTION_INPUTS = {null, GameInput.UP, GameInput.DOWN, GameInput.LEFT, GameInput.RIGHT};
+
+    private final LevelSource levels;
+    private final int ticksPerStep;
+    private final int columns;
+    private final int rows;
+    private final byte[] wallPlane;
+    private long wallPlaneLevelLoad = -1;
+
+    private PacManGame game;
+    private int lastScore;
+
+    /** An environment on the built-in levels that advances one tick per step. */
+    public PacManEnv() {
+        this(BuiltInLevels.INSTANCE, 1);
+    }
+
+    public PacManEnv(LevelSource levels, int ticksPerStep) {
+        if (ticksPerStep < 1) {
+            throw new IllegalArgumentException("ticksPerStep must be positive");
+        }
+        this.levels = Objects.requireNonNull(levels, "levels");
+        this.ticksPerStep = ticksPerStep;
+        Level first = levels.getLevel(0);
+        this.columns = first.getColumns();
+        this.rows = first.getRows();
+        this.wallPlane = new byte[columns * rows];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /** Size in bytes of one observation. */
+    public int getObservationBytes() {
+        return PLANES * columns * rows;
+    }
+
+    /** The game being played, for reading score, lives and level; null before the first reset. */
+    public PacManGame getGame() {
+        return game;
+    }
+
+    /** Starts a new episode whose ghosts draw from {@code seed}. */
+    public void reset(long seed) {
+        if (game == null) {
+            game = new PacManGame(seed, levels);
+        } else {
+            game.reset(seed);
+        }
+        lastScore = 0;
+    }
+
+    /** Applies {@code action}, advances the game and returns the points scored. */
+    public int step(int action) {
+        if (action < 0 || action >= ACTION_COUNT) {
+            throw new IllegalArgumentException("Unknown action " + action);
+        }
+        if (game == null || isDone()) {
+            throw new IllegalStateException("No episode running; call reset first");
+        }
+
+        GameInput input = ACTION_INPUTS[action];
+        if (input != null) {
+            game.onInput(input);
+        }
+        for (int i = 0; i < ticksPerStep && game.getGameState() == GameState.RUNNING; i++) {
+            game.tick();
+        }
+        while (game.getGameState() == GameState.DYING) {
+            game.tick();
+        }
+
+        int reward = game.getScore() - lastScore;
+        lastScore = game.getScore();
+        return reward;
+    }
+
+    /** True once the episode has ended in a win or a game over. */
+    public boolean isDone() {
+        if (game == null) {
+            throw new IllegalStateException("No episode running; call reset first");
+        }
+        GameState state = game.getGameState();
+        return state == GameState.WIN || state == GameState.GAME_OVER;
+    }
+
+    /**
+     * Writes the current observation into {@code target} at {@code offset}, without moving its position. Only
+     * absolute puts are used, so environments may write disjoint parts of one buffer from different threads.
+     */
+    public void observe(ByteBuffer target, int offset) {
+        int bytes = getObservationBytes();
+        if (offset < 0 || target.capacity() - offset < bytes) {
+            throw new IllegalArgumentException(
+                    "Need " + bytes + " bytes at offset " + offset + ", buffer capacity is " + target.capacity());
+        }
+        int gameColumns = game.getColumnCount();
+        int gameRows = game.getRowCount();
+        if (gameColumns > columns || gameRows > rows) {
+            throw new IllegalStateException("Level " + (game.getLevelIndex() + 1) + " is " + gameColumns + "x"
+                    + gameRows + "; this environment observes " + columns + "x" + rows);
+        }
+
+        int tiles = columns * rows;
+        if (game.getLevelLoadCount() != wallPlaneLevelLoad) {
+            buildWallPlane(gameColumns, gameRows);
+        }
+        for (int i = 0; i < tiles; i++) {
+            target.put(offset + i, wallPlane[i]);
+        }
+        clear(target, offset + tiles, (PLANES - 1) * tiles);
+
+        int pellets = offset + PLANE_PELLETS * tiles;
+        for (int tile = game.nextPelletTile(0); tile >= 0; tile = game.nextPelletTile(tile + 1)) {
+            target.put(pellets + observedTile(tile, gameColumns), (byte) 1);
+        }
+        int powerPellets = offset + PLANE_POWER_PELLETS * tiles;
+        for (int tile = game.nextPowerPelletTile(0); tile >= 0; tile = game.nextPowerPelletTile(tile + 1)) {
+            target.put(powerPellets + observedTile(tile, gameColumns), (byte) 1);
+        }
+
+        Ghosts ghosts = game.getGhosts();
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            int plane = ghosts.isFrightened(ghost) ? PLANE_FRIGHTENED_GHOSTS : PLANE_GHOSTS;
+            int tile = centreTile(ghosts.getX(ghost), ghosts.getY(ghost), Ghosts.SIZE, Ghosts.SIZE, gameColumns, gameRows);
+            target.put(offset + plane * tiles + tile, (byte) 1);
+        }
+        PacManGame.Player pacman = game.getPacman();
+        int pacmanTile = centreTile(pacman.getX(), pacman.getY(), pacman.getWidth(), pacman.getHeight(),
+                gameColumns, gameRows);
+        target.put(offset + PLANE_PACMAN * tiles + pacmanTile, (byte) 1);
+    }
+
+    private void buildWallPlane(int gameColumns, int gameRows) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                boolean wall = col >= gameColumns || row >= gameRows || game.isWall(col, row);
+                wallPlane[row * columns + col] = (byte) (wall ? 1 : 0);
+            }
+        }
+        wallPlaneLevelLoad = game.getLevelLoadCount();
+    }
+
+    private static void clear(ByteBuffer target, int from, int length) {
+        int end = from + length;
+        int i = from;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            target.putLong(i, 0L);
+        }
+        for (; i < end; i++) {
+            target.put(i, (byte) 0);
+        }
+    }
+
+    /** Converts a game tile index to this environment's observation layout. */
+    private int observedTile(int tile, int gameColumns) {
+        return (tile / gameColumns) * columns + tile % gameColumns;
+    }
+
+    private int centreTile(int x, int y, int width, int height, int gameColumns, int gameRows) {
+        // Actors crossing the side tunnel are partly off the board; wrap them like the game does.
+        int col = Math.floorMod(Math.floorDiv(x + width / 2, TILE_SIZE), gameColumns);
+        int row = Math.min(gameRows - 1, Math.max(0, Math.floorDiv(y + height / 2, TILE_SIZE)));
+        return row * columns + col;
+    }
+}
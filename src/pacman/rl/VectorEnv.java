@@ -0,0 +1,245 @@
+package pacman.rl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import pacman.level.BuiltInLevels;
+import pacman.level.LevelPack;
+import pacman.level.LevelSource;
+
+/**
+ * {@code count} {@link PacManEnv}s stepped in lockstep on a fork-join pool. Each call steps every environment once;
+ * the environments are split into contiguous slices, and the slice tasks are allocated once and reused, so a step
+ * allocates nothing.
+ *
+ * Observations are written env-major into one caller-supplied buffer: environment {@code i} occupies
+ * {@link #getObservationBytes()} bytes at {@code i * getObservationBytes()}. An environment whose episode ends
+ * reports {@code done} and is reset at once, so its observation is already the first of the next episode.
+ * Environment {@code i}'s {@code k}-th episode uses seed {@code baseSeed + i + k * count}.
+ *
+ * Calls must not overlap; the pool may be shared with other work.
+ */
+public final class VectorEnv {
+    private static final int SLICES_PER_THREAD = 4;
+
+    private final PacManEnv[] envs;
+    private final long[] episodes;
+    private final ForkJoinPool pool;
+    private final Slice[] slices;
+    private final StepAll stepAll = new StepAll();
+    private long baseSeed;
+
+    // Arguments of the call in progress, read by the slice tasks.
+    private boolean resetting;
+    private int[] actions;
+    private int[] rewards;
+    private boolean[] dones;
+    private ByteBuffer observations;
+
+    public VectorEnv(int count, LevelSource levels, int ticksPerStep, ForkJoinPool pool) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        this.envs = new PacManEnv[count];
+        for (int i = 0; i < count; i++) {
+            envs[i] = new PacManEnv(levels, ticksPerStep);
+        }
+        this.episodes = new long[count];
+        this.pool = pool;
+
+        int sliceCount = Math.min(count, pool.getParallelism() * SLICES_PER_THREAD);
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice((int) ((long) i * count / sliceCount), (int) ((long) (i + 1) * count / sliceCount));
+        }
+    }
+
+    public int size() {
+        return envs.length;
+    }
+
+    /** Size in bytes of one environment's observation. */
+    public int getObservationBytes() {
+        return envs[0].getObservationBytes();
+    }
+
+    public PacManEnv getEnv(int index) {
+        return envs[index];
+    }
+
+    /** Starts the first episode of every environment and writes their observations. */
+    public void reset(long baseSeed, ByteBuffer observations) {
+        checkObservations(observations);
+        this.baseSeed = baseSeed;
+        this.resetting = true;
+        this.observations = observations;
+        try {
+            run();
+        } finally {
+            this.observations = null;
+        }
+    }
+
+    /**
+     * Applies {@code actions[i]} to environment {@code i}, stores its reward and whether its episode ended, and writes
+     * its observation.
+     */
+    public void step(int[] actions, int[] rewards, boolean[] dones, ByteBuffer observations) {
+        if (actions.length != envs.length || rewards.length != envs.length || dones.length != envs.length) {
+            throw new IllegalArgumentException("actions, rewards and dones must all have " + envs.length + " entries");
+        }
+        checkObservations(observations);
+        this.resetting = false;
+        this.actions = actions;
+        this.rewards = rewards;
+        this.dones = dones;
+        this.observations = observations;
+        try {
+            run();
+        } finally {
+            this.actions = null;
+            this.rewards = null;
+            this.dones = null;
+            this.observations = null;
+        }
+    }
+
+    private void checkObservations(ByteBuffer observations) {
+        long needed = (long) envs.length * getObservationBytes();
+        if (observations.capacity() < needed) {
+            throw new IllegalArgumentException(
+                    "Need " + needed + " observation bytes, buffer capacity is " + observations.capacity());
+        }
+    }
+
+    private void run() {
+        stepAll.reinitialize();
+        pool.invoke(stepAll);
+    }
+
+    private void resetEnv(int index) {
+        envs[index].reset(baseSeed + index + episodes[index] * envs.length);
+        episodes[index]++;
+    }
+
+    private void update(int index) {
+        PacManEnv env = envs[index];
+        if (resetting) {
+            episodes[index] = 0;
+            resetEnv(index);
+        } else {
+            rewards[index] = env.step(actions[index]);
+            dones[index] = env.isDone();
+            if (dones[index]) {
+                resetEnv(index);
+            }
+        }
+        env.observe(observations, index * getObservationBytes());
+    }
+
+    private final class StepAll extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (Slice slice : slices) {
+                slice.reinitialize();
+            }
+            ForkJoinTask.invokeAll(slices);
+        }
+    }
+
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Slice(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = from; i < to; i++) {
+                update(i);
+            }
+        }
+    }
+
+    /**
+     * Measures stepping throughput with uniformly random actions.
+     *
+     * Usage: {@code VectorEnv [--envs n] [--steps s] [--seed s] [--threads t] [--ticks-per-step k] [--levels pack]}
+     */
+    public static void main(String[] args) throws IOException {
+        int count = 64;
+        long steps = 100_000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int ticksPerStep = 1;
+        String levelPack = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--envs") && i + 1 < args.length) {
+                count = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--steps") && i + 1 < args.length) {
+                steps = Long.parseLong(args[++i]);
+            } else if (arg.equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--ticks-per-step") && i + 1 < args.length) {
+                ticksPerStep = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--levels") && i + 1 < args.length) {
+                levelPack = args[++i];
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        LevelPack pack = levelPack != null ? LevelPack.open(Paths.get(levelPack)) : null;
+        LevelSource levels = pack != null ? pack : BuiltInLevels.INSTANCE;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            VectorEnv env = new VectorEnv(count, levels, ticksPerStep, pool);
+            ByteBuffer observations = ByteBuffer.allocateDirect(count * env.getObservationBytes());
+            int[] actions = new int[count];
+            int[] rewards = new int[count];
+            boolean[] dones = new boolean[count];
+            Random random = new Random(seed);
+            long episodes = 0;
+            long totalReward = 0;
+
+            long start = System.nanoTime();
+            env.reset(seed, observations);
+            for (long step = 0; step < steps; step++) {
+                for (int i = 0; i < count; i++) {
+                    actions[i] = random.nextInt(PacManEnv.ACTION_COUNT);
+                }
+                env.step(actions, rewards, dones, observations);
+                for (int i = 0; i < count; i++) {
+                    totalReward += rewards[i];
+                    if (dones[i]) {
+                        episodes++;
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long envSteps = steps * count;
+            System.out.printf("%d envs x %d steps on %d threads: %.2fs, %.0f env steps/s, %d episodes, mean reward/step %.3f%n",
+                    count, steps, threads, seconds, envSteps / seconds, episodes, (double) totalReward / envSteps);
+        } finally {
+            pool.shutdown();
+            if (pack != null) {
+                pack.close();
+            }
+        }
+    }
+}
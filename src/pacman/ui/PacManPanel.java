@@ -1,46 +1,193 @@
 package pacman.ui;
 
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import javax.swing.*;
 
+import pacman.game.DirtyRegions;
+import pacman.game.GameInput;
+import pacman.game.InputQueue;
 import pacman.game.PacManGame;
+import pacman.render.Assets;
+import pacman.render.PacManRenderer;
+import pacman.replay.ReplayPlayer;
 
-public class PacManPanel extends JPanel implements ActionListener, KeyListener {
+/**
+ * Game view with its own loop thread. The simulation advances in fixed {@link PacManGame#TICK_MS} steps (catching
+ * up after a stall, within limits) while frames are rendered actively at the configured rate, with actors
+ * interpolated between the last two ticks. Nothing runs on the EDT except key capture.
+ *
+ * Only the regions the game reports as changed are redrawn; nothing is drawn at all while nothing changes (e.g.
+ * paused or game over). Level loads, state changes and the performance overlay redraw the whole view.
+ */
+public class PacManPanel extends RenderLoopCanvas implements KeyListener {
     // Controls:
     // - Arrow keys: move
     // - P: pause/resume
     // - R: restart
     // - Enter: restart after Win/Game Over
+    // - F3: performance overlay
 
-    private final PacManGame game;
-    private final Timer gameLoop;
+    /** Frame rate value that disables frame pacing. */
+    public static final int UNCAPPED_FPS = 0;
+
+    // After a longer stall the backlog is dropped instead of fast-forwarding the game.
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private static final int DEFAULT_FPS = 60;
+    private static final long serialVersionUID = 1L;
+
+    private final ReplayPlayer replay;
+    private final long nanosPerTick;
+    private final int maxTicksPerFrame;
+    private final InputQueue inputQueue;
+
+    private volatile boolean overlayVisible = false;
+    private final PerformanceOverlay overlay;
+    // Loop thread only.
+    private boolean overlayShown = false;
+    private long previousTime;
+    private long lag;
+    // Loop thread only. What the ticks shown by the last frame changed: actors were drawn part-way through those
+    // moves, so their regions are redrawn every frame until the next tick, and once more after it to erase them.
+    private final DirtyRegions animating = new DirtyRegions();
 
     public PacManPanel() {
-        this.game = new PacManGame(PacManGame.Assets.load(PacManPanel.class));
+        this(new PacManGame());
+    }
+
+    public PacManPanel(PacManGame game) {
+        this(game, displayRefreshRate());
+    }
+
+    /** @param fps frames per second to render, or {@link #UNCAPPED_FPS} */
+    public PacManPanel(PacManGame game, int fps) {
+        this(game, null, 1.0, fps);
+    }
+
+    /** Plays a replay back at {@code speed} times real time; keyboard input is ignored. */
+    public PacManPanel(ReplayPlayer replay, double speed, int fps) {
+        this(replay.getGame(), replay, speed, fps);
+    }
+
+    private PacManPanel(PacManGame game, ReplayPlayer replay, double speed, int fps) {
+        super("pacman-loop", game, new PacManRenderer(game, Assets.load(PacManPanel.class)), fps);
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be positive");
+        }
+        this.replay = replay;
+        this.inputQueue = game.getInputQueue();
+        this.nanosPerTick = Math.max(1, (long) (PacManGame.TICK_MS * 1_000_000L / speed));
+        this.maxTicksPerFrame = MAX_CATCH_UP_TICKS * (int) Math.max(1, Math.ceil(speed));
+        this.overlay = new PerformanceOverlay(nanosPerFrame > 0 ? nanosPerFrame : 1_000_000_000L / DEFAULT_FPS);
 
-        setPreferredSize(new Dimension(game.getBoardWidth(), game.getBoardHeight()));
-        setBackground(Color.BLACK);
+        fitBoard();
         setFocusable(true);
         addKeyListener(this);
+    }
+
+    /** Refresh rate of the default screen, or 60 when it cannot be determined (e.g. headless). */
+    public static int displayRefreshRate() {
+        try {
+            GraphicsDevice device = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+            int refreshRate = device.getDisplayMode().getRefreshRate();
+            return refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_FPS : refreshRate;
+        } catch (HeadlessException e) {
+            return DEFAULT_FPS;
+        }
+    }
 
-        this.gameLoop = new Timer(PacManGame.TICK_MS, this);
-        this.gameLoop.start();
+    public PacManGame getGame() {
+        return game;
     }
 
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        game.draw(g);
+    void loopStarted(long now) {
+        previousTime = now;
+        lag = 0;
     }
 
     @Override
-    public void actionPerformed(ActionEvent e) {
-        game.tick();
-        repaint();
+    void step(long frameStart) {
+        lag += frameStart - previousTime;
+        previousTime = frameStart;
+
+        int ticks = 0;
+        while (lag >= nanosPerTick && ticks < maxTicksPerFrame) {
+            if (replay == null) {
+                game.tick();
+            } else {
+                replay.step();
+            }
+            lag -= nanosPerTick;
+            ticks++;
+        }
+        long droppedTicks = 0;
+        if (lag >= nanosPerTick) {
+            droppedTicks = lag / nanosPerTick;
+            lag %= nanosPerTick;
+        }
+        overlay.ticksRun(ticks, droppedTicks);
+        checkBoardSize();
+
+        DirtyRegions changed = game.getDirtyRegions();
+        if (ticks > 0) {
+            // The last frame drew actors somewhere inside the previous ticks' regions; clear those pixels too.
+            damaged.addAll(animating);
+            animating.clear();
+            animating.addAll(changed);
+            changed.clear();
+        }
+        damaged.addAll(animating);
+    }
+
+    @Override
+    float interpolation(long frameStart) {
+        return lag / (float) nanosPerTick;
+    }
+
+    @Override
+    long idleUntil(long frameStart) {
+        // Nothing is animating, so there is nothing to do until the next tick is due.
+        return frameStart + (nanosPerTick - lag);
+    }
+
+    // The overlay graph needs every frame.
+    @Override
+    boolean wantsFrame() {
+        return overlayVisible || super.wantsFrame();
+    }
+
+    @Override
+    void frameStarting(long paintStart) {
+        boolean showOverlay = overlayVisible;
+        if (showOverlay) {
+            if (!overlayShown) {
+                overlay.reset();
+            }
+            overlay.frameStarted(paintStart);
+        }
+        overlayShown = showOverlay;
+    }
+
+    @Override
+    void drawFrame(Graphics g, float alpha, int width, int height) {
+        if (overlayShown) {
+            damaged.markAll();
+        }
+        super.drawFrame(g, alpha, width, height);
+        if (overlayShown) {
+            overlay.draw(g, height);
+        }
+    }
+
+    @Override
+    void frameShown(long paintStart, long shown) {
+        overlay.paintFinished(shown - paintStart);
+
+        long pressed;
+        while ((pressed = inputQueue.pollShown(game.getTickCount())) >= 0) {
+            overlay.inputShown(shown - pressed);
+        }
     }
 
     @Override
@@ -49,7 +196,17 @@ public class PacManPanel extends JPanel implements ActionListener, KeyListener {
 
     @Override
     public void keyPressed(KeyEvent e) {
-        game.onKeyPressed(e.getKeyCode());
+        if (e.getKeyCode() == KeyEvent.VK_F3) {
+            // View-only toggle: never reaches the game, so it is not part of replays either.
+            overlayVisible = !overlayVisible;
+            requestRepaint();
+            return;
+        }
+        GameInput input = GameInput.fromKeyCode(e.getKeyCode());
+        if (input != null && replay == null) {
+            // Timestamped and handed to the loop thread; the game applies it at the start of its next tick.
+            inputQueue.offer(input, System.nanoTime());
+        }
     }
 
     @Override
@@ -0,0 +1,185 @@
+package pacman.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Debug overlay (toggled with F3) showing where frame time goes: frame interval and paint time, ticks per second,
+ * ticks run late as catch-up and ticks dropped after a stall, GC time, input-to-display latency, and a graph of
+ * recent frame times with p50/p99/max.
+ *
+ * Frame times and input latencies live in fixed ring buffers; only the once-per-second text refresh allocates.
+ */
+final class PerformanceOverlay {
+    private static final int HISTORY = 240;
+    private static final long SECOND_NANOS = 1_000_000_000L;
+    private static final int WIDTH = 300;
+    private static final int GRAPH_HEIGHT = 60;
+    private static final int LINE_HEIGHT = 14;
+    private static final long GRAPH_MAX_NANOS = 50_000_000L;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 180);
+    private static final Color GRAPH = new Color(80, 220, 80);
+    private static final Color SLOW = new Color(240, 80, 60);
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    private final long[] frameNanos = new long[HISTORY];
+    private final long[] sorted = new long[HISTORY];
+    // Kept while the overlay is hidden, so the latency of the keys that open it is not lost.
+    private final long[] inputNanos = new long[HISTORY];
+    private int inputNext = 0;
+    private int inputSize = 0;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final long budgetNanos;
+    private int next = 0;
+    private int size = 0;
+
+    private long lastFrameStart = 0;
+    private long paintNanos = 0;
+
+    private long windowStart = 0;
+    private int windowFrames = 0;
+    private int windowTicks = 0;
+    private int windowCatchUpTicks = 0;
+    private long windowDroppedTicks = 0;
+    private long windowGcMillisStart = 0;
+    private String[] lines = {"collecting..."};
+
+    /** @param budgetNanos frame budget drawn as a reference line (e.g. one refresh interval) */
+    PerformanceOverlay(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /** Forgets history, so time spent hidden does not show up as one giant frame. */
+    void reset() {
+        next = 0;
+        size = 0;
+        lastFrameStart = 0;
+        windowStart = 0;
+        windowFrames = 0;
+        windowTicks = 0;
+        windowCatchUpTicks = 0;
+        windowDroppedTicks = 0;
+    }
+
+    /** Called once per loop iteration with the number of ticks it ran and how many it had to drop. */
+    void ticksRun(int ticks, long droppedTicks) {
+        windowTicks += ticks;
+        if (ticks > 1) {
+            windowCatchUpTicks += ticks - 1;
+        }
+        windowDroppedTicks += droppedTicks;
+    }
+
+    void frameStarted(long now) {
+        if (lastFrameStart != 0) {
+            frameNanos[next] = now - lastFrameStart;
+            next = (next + 1) % HISTORY;
+            size = Math.min(size + 1, HISTORY);
+        }
+        lastFrameStart = now;
+        windowFrames++;
+
+        if (windowStart == 0) {
+            windowStart = now;
+            windowGcMillisStart = gcMillis();
+        } else if (now - windowStart >= SECOND_NANOS) {
+            refreshText(now);
+        }
+    }
+
+    void paintFinished(long nanos) {
+        paintNanos = nanos;
+    }
+
+    /** Records the time from a key press to the presented frame that first included it. */
+    void inputShown(long latencyNanos) {
+        inputNanos[inputNext] = latencyNanos;
+        inputNext = (inputNext + 1) % HISTORY;
+        inputSize = Math.min(inputSize + 1, HISTORY);
+    }
+
+    private void refreshText(long now) {
+        double seconds = (now - windowStart) / (double) SECOND_NANOS;
+        long gcMillis = gcMillis();
+
+        System.arraycopy(inputNanos, 0, sorted, 0, inputSize);
+        Arrays.sort(sorted, 0, inputSize);
+        String input = String.format("input p50 %5.1f p99 %5.1f max %5.1f ms", millis(percentile(50, inputSize)),
+                millis(percentile(99, inputSize)), millis(inputSize == 0 ? 0 : sorted[inputSize - 1]));
+
+        System.arraycopy(frameNanos, 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+
+        lines = new String[] {
+                String.format("fps %5.1f   tps %5.1f", windowFrames / seconds, windowTicks / seconds),
+                String.format("frame p50 %5.1f p99 %5.1f max %5.1f ms", millis(percentile(50, size)),
+                        millis(percentile(99, size)), millis(size == 0 ? 0 : sorted[size - 1])),
+                input,
+                String.format("paint %5.2f ms   gc %4d ms/s", paintNanos / 1e6, Math.round((gcMillis - windowGcMillisStart) / seconds)),
+                String.format("catch-up %3d   dropped %3d ticks/s", Math.round(windowCatchUpTicks / seconds),
+                        Math.round(windowDroppedTicks / seconds))
+        };
+
+        windowStart = now;
+        windowFrames = 0;
+        windowTicks = 0;
+        windowCatchUpTicks = 0;
+        windowDroppedTicks = 0;
+        windowGcMillisStart = gcMillis;
+    }
+
+    /** The given percentile of the first {@code size} entries of {@code sorted}. */
+    private long percentile(double percentile, int size) {
+        if (size == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+
+    private long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    void draw(Graphics g, int boardHeight) {
+        int height = lines.length * LINE_HEIGHT + GRAPH_HEIGHT + 12;
+        int left = 4;
+        int top = boardHeight - height - 4;
+
+        g.setColor(BACKGROUND);
+        g.fillRect(left, top, WIDTH, height);
+
+        g.setFont(FONT);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], left + 4, top + (i + 1) * LINE_HEIGHT);
+        }
+
+        // Newest frame on the right; one pixel per frame, scaled so the top of the graph is 50 ms.
+        int graphBottom = top + height - 4;
+        int graphLeft = left + 4 + (WIDTH - 8 - HISTORY);
+        for (int i = 0; i < size; i++) {
+            long nanos = frameNanos[(next - size + i + HISTORY) % HISTORY];
+            int barHeight = (int) Math.min(GRAPH_HEIGHT, nanos * GRAPH_HEIGHT / GRAPH_MAX_NANOS);
+            g.setColor(nanos > budgetNanos * 3 / 2 ? SLOW : GRAPH);
+            g.drawLine(graphLeft + HISTORY - size + i, graphBottom, graphLeft + HISTORY - size + i, graphBottom - barHeight);
+        }
+
+        int budgetY = graphBottom - (int) Math.min(GRAPH_HEIGHT, budgetNanos * GRAPH_HEIGHT / GRAPH_MAX_NANOS);
+        g.setColor(Color.GRAY);
+        g.drawLine(graphLeft, budgetY, graphLeft + HISTORY, budgetY);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
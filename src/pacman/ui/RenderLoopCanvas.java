@@ -0,0 +1,302 @@
+package pacman.ui;
+
+import java.awt.*;
+import java.awt.image.VolatileImage;
+import javax.swing.SwingUtilities;
+
+import pacman.game.DirtyRegions;
+import pacman.game.PacManGame;
+import pacman.render.PacManRenderer;
+
+/**
+ * A canvas that renders a {@link PacManGame} actively from its own loop thread, started when the canvas is added to
+ * a window and stopped when it is removed. Each loop iteration runs {@link #step}, draws a frame if one is wanted,
+ * and then sleeps until the next frame (or, when nothing was drawn, until {@link #idleUntil}).
+ *
+ * Frames are drawn into a persistent back buffer. Only the regions collected in {@link #damaged} are redrawn there
+ * and copied to the screen; a scroll, a resize or a lost buffer redraws the whole view.
+ */
+abstract class RenderLoopCanvas extends Canvas implements Runnable {
+    private static final long serialVersionUID = 1L;
+
+    // Room left around the canvas for window decorations and the taskbar when a board is larger than the screen.
+    private static final int SCREEN_MARGIN = 64;
+    private static final Dimension HEADLESS_SCREEN = new Dimension(1280, 960);
+
+    final PacManGame game;
+    final PacManRenderer renderer;
+    final long nanosPerFrame;
+    // Loop thread only: what the next frame redraws, in board pixels.
+    final DirtyRegions damaged = new DirtyRegions();
+
+    private final String threadName;
+    private volatile boolean running;
+    private volatile boolean repaintRequested = true;
+    private Thread loopThread;
+    // Board size the canvas was last sized for; read and written on the loop thread only.
+    private int boardWidth;
+    private int boardHeight;
+    private VolatileImage backBuffer;
+
+    /** @param fps frames per second to render, or {@link PacManPanel#UNCAPPED_FPS} */
+    RenderLoopCanvas(String threadName, PacManGame game, PacManRenderer renderer, int fps) {
+        if (fps < 0) {
+            throw new IllegalArgumentException("fps must not be negative");
+        }
+        this.threadName = threadName;
+        this.game = game;
+        this.renderer = renderer;
+        this.nanosPerFrame = fps == PacManPanel.UNCAPPED_FPS ? 0 : 1_000_000_000L / fps;
+        setBackground(Color.BLACK);
+    }
+
+    /** The board size, shrunk to fit on screen; larger boards scroll to follow Pac-Man. */
+    static Dimension viewportSize(int boardWidth, int boardHeight) {
+        Dimension screen;
+        try {
+            Rectangle bounds = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+            screen = new Dimension(bounds.width - SCREEN_MARGIN, bounds.height - SCREEN_MARGIN);
+        } catch (HeadlessException e) {
+            screen = HEADLESS_SCREEN;
+        }
+        return new Dimension(Math.min(boardWidth, screen.width), Math.min(boardHeight, screen.height));
+    }
+
+    /** Sizes the canvas for the game's current board; call before the canvas is shown. */
+    final void fitBoard() {
+        boardWidth = game.getBoardWidth();
+        boardHeight = game.getBoardHeight();
+        setPreferredSize(viewportSize(boardWidth, boardHeight));
+    }
+
+    /** Called on the loop thread before its first iteration, each time the loop starts. */
+    void loopStarted(long now) {
+    }
+
+    /** Advances whatever the loop drives at {@code frameStart} and adds what changed to {@link #damaged}. */
+    abstract void step(long frameStart);
+
+    /** How far (0..1) actors are drawn from their previous tick position to their current one. */
+    abstract float interpolation(long frameStart);
+
+    /** When to wake up after an iteration that drew nothing; by default one frame later. */
+    long idleUntil(long frameStart) {
+        return frameStart + nanosPerFrame;
+    }
+
+    boolean wantsFrame() {
+        return repaintRequested || !damaged.isEmpty();
+    }
+
+    /** Called before a frame is drawn, with the time drawing started. */
+    void frameStarting(long paintStart) {
+    }
+
+    /** Called once a frame is on screen. */
+    void frameShown(long paintStart, long shown) {
+    }
+
+    /**
+     * Draws the frame into the back buffer: the whole view when everything is damaged or the view scrolled,
+     * otherwise only the damaged regions. Runs again if the buffer is lost meanwhile.
+     */
+    void drawFrame(Graphics g, float alpha, int width, int height) {
+        if (renderer.scroll(alpha, width, height)) {
+            damaged.markAll();
+        }
+        if (damaged.isAllDirty()) {
+            drawArea(g, alpha, 0, 0, width, height, width, height);
+            return;
+        }
+        if (damaged.isHudDirty()) {
+            drawArea(g, alpha, 0, 0, width, PacManRenderer.HUD_HEIGHT, width, height);
+        }
+        for (int i = 0; i < damaged.size(); i++) {
+            drawArea(g, alpha, damaged.getX(i) - renderer.getViewX(), damaged.getY(i) - renderer.getViewY(),
+                    damaged.getWidth(i), damaged.getHeight(i), width, height);
+        }
+    }
+
+    /** Asks the loop for a full frame, e.g. after something only the view knows about changed. */
+    final void requestRepaint() {
+        repaintRequested = true;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        start();
+    }
+
+    @Override
+    public void removeNotify() {
+        stop();
+        super.removeNotify();
+    }
+
+    private synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        loopThread = new Thread(this, threadName);
+        loopThread.setDaemon(true);
+        loopThread.start();
+    }
+
+    /** Stops the loop thread and waits for it, after which the game may be read from any thread. */
+    public synchronized void stop() {
+        running = false;
+        if (loopThread == null || loopThread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            loopThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        loopThread = null;
+    }
+
+    // The loop renders on its own; AWT paint requests (expose, resize) just ask it for a full frame.
+    @Override
+    public void paint(Graphics g) {
+        repaintRequested = true;
+    }
+
+    @Override
+    public void update(Graphics g) {
+        repaintRequested = true;
+    }
+
+    @Override
+    public final void run() {
+        loopStarted(System.nanoTime());
+        while (running) {
+            long frameStart = System.nanoTime();
+            step(frameStart);
+
+            boolean rendered = false;
+            if (isShowing() && getWidth() > 0 && getHeight() > 0 && wantsFrame()) {
+                render(interpolation(frameStart));
+                rendered = true;
+            }
+
+            pace(frameStart, rendered);
+        }
+    }
+
+    /** Levels may differ in size; when a new one loads, resize the canvas and its window to fit on the EDT. */
+    final void checkBoardSize() {
+        int width = game.getBoardWidth();
+        int height = game.getBoardHeight();
+        if (width == boardWidth && height == boardHeight) {
+            return;
+        }
+        boardWidth = width;
+        boardHeight = height;
+        EventQueue.invokeLater(() -> {
+            setPreferredSize(viewportSize(width, height));
+            Window window = SwingUtilities.getWindowAncestor(this);
+            if (window != null) {
+                window.pack();
+            }
+        });
+    }
+
+    private void render(float alpha) {
+        long paintStart = System.nanoTime();
+        frameStarting(paintStart);
+        if (repaintRequested) {
+            repaintRequested = false;
+            damaged.markAll();
+        }
+
+        int width = getWidth();
+        int height = getHeight();
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        do {
+            if (backBuffer == null || backBuffer.getWidth() != width || backBuffer.getHeight() != height
+                    || backBuffer.validate(config) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (backBuffer != null) {
+                    backBuffer.flush();
+                }
+                backBuffer = config.createCompatibleVolatileImage(width, height);
+                backBuffer.validate(config);
+                damaged.markAll();
+            } else if (backBuffer.validate(config) == VolatileImage.IMAGE_RESTORED) {
+                damaged.markAll();
+            }
+
+            Graphics g = backBuffer.createGraphics();
+            try {
+                drawFrame(g, alpha, width, height);
+            } finally {
+                g.dispose();
+            }
+            show(width);
+        } while (backBuffer.contentsLost());
+        damaged.clear();
+        Toolkit.getDefaultToolkit().sync();
+        frameShown(paintStart, System.nanoTime());
+    }
+
+    /** Redraws one area of the back buffer, in view pixels; everything outside it is left alone. */
+    private void drawArea(Graphics g, float alpha, int x, int y, int areaWidth, int areaHeight, int width, int height) {
+        g.setClip(x, y, areaWidth, areaHeight);
+        g.setColor(getBackground());
+        g.fillRect(x, y, areaWidth, areaHeight);
+        renderer.draw(g, alpha, width, height);
+        g.setClip(null);
+    }
+
+    /** Copies the areas just redrawn from the back buffer to the screen. */
+    private void show(int width) {
+        Graphics screen = getGraphics();
+        if (screen == null) {
+            return;
+        }
+        try {
+            if (damaged.isAllDirty()) {
+                screen.drawImage(backBuffer, 0, 0, null);
+                return;
+            }
+            if (damaged.isHudDirty()) {
+                copyToScreen(screen, 0, 0, width, PacManRenderer.HUD_HEIGHT);
+            }
+            for (int i = 0; i < damaged.size(); i++) {
+                copyToScreen(screen, damaged.getX(i) - renderer.getViewX(), damaged.getY(i) - renderer.getViewY(),
+                        damaged.getWidth(i), damaged.getHeight(i));
+            }
+        } finally {
+            screen.dispose();
+        }
+    }
+
+    private void copyToScreen(Graphics screen, int x, int y, int width, int height) {
+        screen.drawImage(backBuffer, x, y, x + width, y + height, x, y, x + width, y + height, null);
+    }
+
+    private void pace(long frameStart, boolean rendered) {
+        long wakeUp;
+        if (!rendered) {
+            wakeUp = idleUntil(frameStart);
+        } else if (nanosPerFrame > 0) {
+            wakeUp = frameStart + nanosPerFrame;
+        } else {
+            Thread.yield();
+            return;
+        }
+
+        long sleepNanos = wakeUp - System.nanoTime();
+        if (sleepNanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+        } catch (InterruptedException e) {
+            running = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pacman.ui;
+
+import java.awt.Graphics;
+
+import pacman.net.SpectatorClient;
+import pacman.render.Assets;
+import pacman.render.PacManRenderer;
+
+/**
+ * View of a game mirrored by a {@link SpectatorClient}. Its loop thread only renders: the client's receiving thread
+ * changes the game, and both hold the client's lock while they touch it. Actors are interpolated by how far the
+ * server's next tick is expected to be.
+ */
+public class SpectatorPanel extends RenderLoopCanvas {
+    private static final long serialVersionUID = 1L;
+
+    private final SpectatorClient client;
+
+    /** @param fps frames per second to render, or {@link PacManPanel#UNCAPPED_FPS} */
+    public SpectatorPanel(SpectatorClient client, int fps) {
+        super("pacman-spectator", client.getGame(),
+                new PacManRenderer(client.getGame(), Assets.load(SpectatorPanel.class)), fps);
+        this.client = client;
+
+        synchronized (client.getLock()) {
+            fitBoard();
+        }
+    }
+
+    // A mirrored game reports no changed regions, so every frame redraws the whole view.
+    @Override
+    void step(long frameStart) {
+        damaged.markAll();
+    }
+
+    @Override
+    float interpolation(long frameStart) {
+        return client.getInterpolation(frameStart);
+    }
+
+    @Override
+    void drawFrame(Graphics g, float alpha, int width, int height) {
+        synchronized (client.getLock()) {
+            // The server may move on to a level of another size.
+            checkBoardSize();
+            super.drawFrame(g, alpha, width, height);
+        }
+    }
+}